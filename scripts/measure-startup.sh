@@ -0,0 +1,82 @@
+#!/usr/bin/env bash
+# Startup time and time-to-first-request of the packaged application, per launch mode.
+#
+# Build first:  mvn -Pfast-startup package         (jar, aot and archive modes)
+#               mvn -Pnative native:compile        (native mode, needs GraalVM)
+# Usage:        scripts/measure-startup.sh [jar] [aot] [archive] [native]   (default: every mode that is built)
+# Environment:  RUNS [5], PORT [18080], PROBE_PATH [/actuator/info], JAVA [java], APP_ARGS [] (e.g. --spring.r2dbc.url=...)
+#
+# From Spring's "Started ... in N seconds (process running for M)" line, "started" is N (application startup, from
+# SpringApplication.run until the context is ready) and "uptime" is M (time since the JVM or native process started).
+# "first request" is wall-clock from launch until PROBE_PATH answers. All are medians over RUNS launches.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${RUNS:-5}
+PORT=${PORT:-18080}
+PROBE_PATH=${PROBE_PATH:-/actuator/info}
+JAVA=${JAVA:-java}
+APP_ARGS=${APP_ARGS:-}
+JAR=$(ls target/springboot-webclient-*.jar 2>/dev/null | grep -v '\.original$' | head -1 || true)
+JAR_NAME=$(basename "${JAR:-none}")
+EXTRACTED=target/extracted
+NATIVE=target/springboot-webclient
+LOG=$(mktemp)
+trap 'rm -f "$LOG"' EXIT
+
+command_for() {
+  case "$1" in
+    jar) [[ -n "$JAR" ]] && echo "$JAVA -jar $PWD/$JAR" ;;
+    # Extracted modes run inside $EXTRACTED like the training run: a class archive only applies to the class path it recorded
+    aot) [[ -f "$EXTRACTED/$JAR_NAME" ]] && echo "$JAVA -Dspring.aot.enabled=true -jar $JAR_NAME" ;;
+    archive)
+      if [[ -f "$EXTRACTED/application.aot" ]]; then  # JDK 25 AOT cache from the training run
+        echo "$JAVA -XX:AOTCache=application.aot -Dspring.aot.enabled=true -jar $JAR_NAME"
+      elif [[ -f "$EXTRACTED/application.jsa" ]]; then  # Dynamic CDS archive (JDK 21 to 24)
+        echo "$JAVA -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar $JAR_NAME"
+      fi ;;
+    native) [[ -x "$NATIVE" ]] && echo "$PWD/$NATIVE" ;;
+  esac
+  return 0
+}
+
+median() {
+  sort -g | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+measure() {
+  local mode=$1 command=$2 started=() uptime=() first=() workdir=$EXTRACTED
+  [[ -d "$workdir" ]] || workdir=.
+  for _ in $(seq "$RUNS"); do
+    local launched=$(date +%s%N)
+    (cd "$workdir" && exec $command --server.port="$PORT" --spring.main.banner-mode=off $APP_ARGS) >"$LOG" 2>&1 &
+    local pid=$!
+    until [[ $(curl -s -o /dev/null -w '%{http_code}' "http://127.0.0.1:$PORT$PROBE_PATH" || true) != 000 ]]; do
+      if ! kill -0 "$pid" 2>/dev/null; then
+        echo "$mode: application exited before answering, log:" >&2
+        cat "$LOG" >&2
+        return 1
+      fi
+      sleep 0.01
+    done
+    first+=("$(( ($(date +%s%N) - launched) / 1000000 ))")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    started+=("$(grep -oE 'Started [A-Za-z]+ in [0-9.]+ seconds' "$LOG" | grep -oE '[0-9.]+' | awk '{ print $1 * 1000 }' || echo 0)")
+    uptime+=("$(grep -oE 'process running for [0-9.]+' "$LOG" | grep -oE '[0-9.]+' | awk '{ print $1 * 1000 }' || echo 0)")
+  done
+  printf '%-8s started %6.0f ms   uptime %6.0f ms   first request %6.0f ms   (%s runs)\n' "$mode" \
+    "$(printf '%s\n' "${started[@]}" | median)" "$(printf '%s\n' "${uptime[@]}" | median)" \
+    "$(printf '%s\n' "${first[@]}" | median)" "$RUNS"
+}
+
+modes=("$@")
+[[ ${#modes[@]} -eq 0 ]] && modes=(jar aot archive native)
+for mode in "${modes[@]}"; do
+  command=$(command_for "$mode")
+  if [[ -z "$command" ]]; then
+    echo "$mode: not built, skipped"
+    continue
+  fi
+  measure "$mode" "$command"
+done
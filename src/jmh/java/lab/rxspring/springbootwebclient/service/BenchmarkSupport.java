@@ -0,0 +1,76 @@
+package lab.rxspring.springbootwebclient.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lab.rxspring.springbootwebclient.client.AttemptBudget;
+import lab.rxspring.springbootwebclient.client.RequestHedger;
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import lab.rxspring.springbootwebclient.dao.CommentDao;
+import lab.rxspring.springbootwebclient.model.Comment;
+import lab.rxspring.springbootwebclient.model.CommentDto;
+
+// Shared fixtures for the JMH benchmarks: payloads and a CommentService wired without Spring
+final class BenchmarkSupport {
+
+    static final String COMMENT_JSON = """
+            {
+              "postId": 1,
+              "id": 1,
+              "name": "id labore ex et quam laborum",
+              "email": "Eliseo@gardner.biz",
+              "body": "laudantium enim quasi est quidem magnam voluptate ipsam eos\\ntempora quo necessitatibus\\ndolor quam autem quasi\\nreiciendis et nam sapiente accusantium"
+            }
+            """;
+
+    private BenchmarkSupport() {
+    }
+
+    static CommentDto commentDto() {
+        CommentDto dto = new CommentDto();
+        dto.setPostId(1);
+        dto.setId(1);
+        dto.setName("id labore ex et quam laborum");
+        dto.setEmail("Eliseo@gardner.biz");
+        dto.setBody("laudantium enim quasi est quidem magnam voluptate ipsam eos\ntempora quo necessitatibus\ndolor quam autem quasi\nreiciendis et nam sapiente accusantium");
+        return dto;
+    }
+
+    static Comment comment() {
+        CommentDto dto = commentDto();
+        return Comment.builder()
+                .id(1L)
+                .externalCommentId(dto.getId())
+                .postId(dto.getPostId())
+                .name(dto.getName())
+                .email(dto.getEmail())
+                .body(dto.getBody())
+                .createdAt(Timestamp.from(Instant.now()))
+                .updatedAt(Timestamp.from(Instant.now()))
+                .build();
+    }
+
+    // CommentService with the cache disabled so every call exercises fetch -> map -> upsert
+    static CommentService commentService(WebClient webClient, CommentDao commentDao, CommentProperties properties) {
+        properties.getCache().setEnabled(false);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CommentProperties.Resilience.Retry retry = properties.getResilience().getRetry();
+        return new CommentService(
+                commentDao,
+                webClient,
+                properties,
+                new CommentCache(properties, meterRegistry),
+                CircuitBreaker.ofDefaults("benchmark"),
+                new AttemptBudget(retry.getBudgetPercent(), retry.getBudgetMinPerSecond(), retry.getBudgetMaxBalance()),
+                new RequestHedger(false, Duration.ZERO, 0, Duration.ZERO, 0, new AttemptBudget(0, 0, 1), meterRegistry),
+                meterRegistry,
+                new CommentMetrics(meterRegistry),
+                new CommentWriteBuffer(commentDao, properties, meterRegistry),
+                new CommentAccessTracker(properties));
+    }
+}
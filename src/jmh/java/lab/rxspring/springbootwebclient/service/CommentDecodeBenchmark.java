@@ -0,0 +1,92 @@
+package lab.rxspring.springbootwebclient.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.JacksonJsonDecoder;
+
+import lab.rxspring.springbootwebclient.model.CommentDto;
+import reactor.core.publisher.Flux;
+
+// Decoding of upstream response bodies through the same Jackson codec WebClient uses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommentDecodeBenchmark {
+
+    private static final ResolvableType COMMENT_DTO_TYPE = ResolvableType.forClass(CommentDto.class);
+    private static final ResolvableType COMMENT_DTO_LIST_TYPE = ResolvableType.forClassWithGenerics(List.class, CommentDto.class);
+    private static final int CHUNK_BYTES = 8 * 1024;  // Roughly what a socket read delivers
+
+    @Param({"500"})
+    public int collectionSize;
+
+    private JacksonJsonDecoder decoder;
+    private byte[] payload;
+    private List<byte[]> collectionChunks;
+
+    @Setup
+    public void setUp() {
+        decoder = new JacksonJsonDecoder();
+        decoder.setMaxInMemorySize(-1);  // The aggregated variant needs the whole array in memory
+        payload = BenchmarkSupport.COMMENT_JSON.getBytes(StandardCharsets.UTF_8);
+        byte[] collection = IntStream.range(0, collectionSize)
+                .mapToObj(i -> BenchmarkSupport.COMMENT_JSON)
+                .collect(Collectors.joining(",", "[", "]"))
+                .getBytes(StandardCharsets.UTF_8);
+        collectionChunks = new ArrayList<>();
+        for (int offset = 0; offset < collection.length; offset += CHUNK_BYTES) {
+            collectionChunks.add(Arrays.copyOfRange(collection, offset, Math.min(collection.length, offset + CHUNK_BYTES)));
+        }
+    }
+
+    @Benchmark
+    public Object decodeCommentDto() {
+        return decoder.decodeToMono(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(payload)),
+                        COMMENT_DTO_TYPE, MediaType.APPLICATION_JSON, Collections.emptyMap())
+                .block();
+    }
+
+    // Whole array aggregated, then bound to a List (bodyToMono(List) style)
+    @Benchmark
+    public Object decodeCollectionAggregated() {
+        return decoder.decodeToMono(collectionBuffers(), COMMENT_DTO_LIST_TYPE, MediaType.APPLICATION_JSON, Collections.emptyMap())
+                .block();
+    }
+
+    // Array tokenized incrementally, one CommentDto per element (bodyToFlux style)
+    @Benchmark
+    public Object decodeCollectionStreaming() {
+        return decoder.decode(collectionBuffers(), COMMENT_DTO_TYPE, MediaType.APPLICATION_JSON, Collections.emptyMap())
+                .count()
+                .block();
+    }
+
+    private Flux<DataBuffer> collectionBuffers() {
+        return Flux.fromIterable(collectionChunks).map(DefaultDataBufferFactory.sharedInstance::wrap);
+    }
+}
@@ -0,0 +1,51 @@
+package lab.rxspring.springbootwebclient.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import lab.rxspring.springbootwebclient.loadtest.InMemoryCommentDao;
+import lab.rxspring.springbootwebclient.model.Comment;
+import lab.rxspring.springbootwebclient.model.CommentDto;
+
+// DTO -> entity mapping and entity rendering, the CPU-only steps around each upstream fetch
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommentMappingBenchmark {
+
+    private CommentService commentService;
+    private CommentDto commentDto;
+    private Comment comment;
+
+    @Setup
+    public void setUp() {
+        commentService = BenchmarkSupport.commentService(null, InMemoryCommentDao.create(), new CommentProperties());
+        commentDto = BenchmarkSupport.commentDto();
+        comment = BenchmarkSupport.comment();
+    }
+
+    @Benchmark
+    public Comment mapToComment() {
+        return commentService.mapToComment(commentDto).block();
+    }
+
+    // Comment.toString serializes through Jackson and runs on every INFO log of a saved comment
+    @Benchmark
+    public String commentToString() {
+        return comment.toString();
+    }
+}
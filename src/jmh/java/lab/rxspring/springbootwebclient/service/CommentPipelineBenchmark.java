@@ -0,0 +1,66 @@
+package lab.rxspring.springbootwebclient.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lab.rxspring.springbootwebclient.client.OutboundRateLimiter;
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import lab.rxspring.springbootwebclient.config.WebClientConfig;
+import lab.rxspring.springbootwebclient.loadtest.InMemoryCommentDao;
+import lab.rxspring.springbootwebclient.loadtest.UpstreamStubServer;
+import lab.rxspring.springbootwebclient.model.Comment;
+import reactor.netty.resources.ConnectionProvider;
+
+// Full getExternalCommentById chain (fetch -> map -> upsert) against a loopback stub of the comments API and an in-memory repository
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommentPipelineBenchmark {
+
+    private final AtomicLong nextId = new AtomicLong();
+    private UpstreamStubServer upstream;
+    private ConnectionProvider connectionProvider;
+    private CommentService commentService;
+
+    @Setup
+    public void setUp() {
+        upstream = UpstreamStubServer.start(Duration.ZERO, Duration.ZERO, 0d, 128);
+        CommentProperties properties = new CommentProperties();
+        properties.getHttp().setBaseUrl(upstream.baseUrl());
+        WebClientConfig webClientConfig = new WebClientConfig();
+        connectionProvider = webClientConfig.commentConnectionProvider(properties);
+        WebClient webClient = webClientConfig.webClient(connectionProvider, properties,
+                new OutboundRateLimiter(properties.getResilience().getRateLimit(), new SimpleMeterRegistry()));  // Same filters and connector as the application
+        commentService = BenchmarkSupport.commentService(webClient, InMemoryCommentDao.create(), properties);
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionProvider.disposeLater().block();
+        upstream.close();
+    }
+
+    // Every invocation uses a new id, so the upsert always writes a row instead of taking the unchanged (no-write) path
+    @Benchmark
+    public Comment fetchMapUpsert() {
+        return commentService.getExternalCommentById(Long.toString(nextId.incrementAndGet())).block();
+    }
+}
@@ -0,0 +1,97 @@
+package lab.rxspring.springbootwebclient.service;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import lab.rxspring.springbootwebclient.logging.RequestContext;
+import lab.rxspring.springbootwebclient.logging.RequestLog;
+import lab.rxspring.springbootwebclient.model.Comment;
+import lab.rxspring.springbootwebclient.model.WriteOutcome;
+import reactor.core.publisher.Signal;
+import reactor.util.context.Context;
+
+// Caller-thread cost of the "comment saved" log line: the previous eager JSON toString against structured fields,
+// and the sampling check for a request that is not sampled. Output is encoded synchronously into a discarding stream.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestLoggingBenchmark {
+
+    private LoggerContext loggerContext;
+    private Logger log;
+    private Comment comment;
+    private Consumer<Signal<Comment>> sampledLog;
+    private Context sampledRequest;
+    private Context unsampledRequest;
+
+    @Setup
+    public void setUp() {
+        loggerContext = new LoggerContext();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d %5p [%t] [%X{requestId:-}] %logger{39} : %m %kvp%n");  // Same fields as logback-spring.xml
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        log = loggerContext.getLogger(CommentService.class);
+        log.addAppender(appender);
+        log.setAdditive(false);
+
+        comment = BenchmarkSupport.comment();
+        comment.setWriteOutcome(WriteOutcome.INSERTED);
+        sampledLog = RequestLog.onNext(saved -> log.atInfo()
+                .addKeyValue("commentId", "1")
+                .addKeyValue("rowId", saved.getId())
+                .addKeyValue("outcome", saved.getWriteOutcome())
+                .log("saveOrUpdateCommentData: comment saved"));
+        sampledRequest = Context.of(RequestContext.class, new RequestContext(RequestContext.newRequestId(), true));
+        unsampledRequest = Context.of(RequestContext.class, new RequestContext(RequestContext.newRequestId(), false));
+    }
+
+    @TearDown
+    public void tearDown() {
+        loggerContext.stop();
+    }
+
+    // Previous behaviour: the whole entity rendered through Comment.toString() (Jackson) on every request
+    @Benchmark
+    public void eagerJsonToString() {
+        log.info("Successfully saved comment {}", comment);
+    }
+
+    // Sampled request: a few key/value fields, with the request id in the MDC
+    @Benchmark
+    public void structuredFieldsSampled() {
+        sampledLog.accept(Signal.next(comment, sampledRequest));
+    }
+
+    // Request not selected for sampling: only the context lookup
+    @Benchmark
+    public void structuredFieldsNotSampled() {
+        sampledLog.accept(Signal.next(comment, unsampledRequest));
+    }
+}
@@ -0,0 +1,74 @@
+package lab.rxspring.springbootwebclient.client;
+
+import java.util.function.LongSupplier;
+
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+// Caps extra upstream attempts (retries) to a percentage of requests, plus a small per-second floor for low traffic.
+// Every request earns 'ratio' tokens, every extra attempt spends one; the balance is capped so idle periods cannot bank a burst.
+public class AttemptBudget {
+
+    private static final double EPSILON = 1e-9;  // Summed fractions land just below 1 (e.g. ten 0.1 earnings)
+
+    private final double ratio;
+    private final double minPerSecond;
+    private final double maxBalance;
+    private final LongSupplier nanoClock;
+    private double balance;
+    private long lastRefillNanos;
+
+    public AttemptBudget(double percent, double minPerSecond, double maxBalance) {
+        this(percent, minPerSecond, maxBalance, System::nanoTime);
+    }
+
+    AttemptBudget(double percent, double minPerSecond, double maxBalance, LongSupplier nanoClock) {
+        this.ratio = percent / 100d;
+        this.minPerSecond = minPerSecond;
+        this.maxBalance = Math.max(1d, maxBalance);
+        this.nanoClock = nanoClock;
+        this.balance = this.maxBalance;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    // Called once per logical request, before any attempt is made
+    public synchronized void recordRequest() {
+        refill();
+        balance = Math.min(maxBalance, balance + ratio);
+    }
+
+    // Returns true and spends a token if an extra attempt is allowed right now
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (balance < 1d - EPSILON) {
+            return false;
+        }
+        balance = Math.max(0d, balance - 1d);
+        return true;
+    }
+
+    // Wraps a retry spec so a token is spent only when a retry will really happen: errors the spec does not retry
+    // and the final failure after its last attempt pass through without touching the budget.
+    // When the budget is empty the failure is propagated as is and onRejected runs once.
+    public Retry limit(RetryBackoffSpec spec, Runnable onRejected) {
+        return Retry.from(signals -> spec.generateCompanion(signals.concatMap(signal -> {
+            if (signal.totalRetries() < spec.maxAttempts && spec.errorFilter.test(signal.failure()) && !tryAcquire()) {
+                onRejected.run();
+                return Mono.error(signal.failure());
+            }
+            return Mono.just(signal.copy());  // Signals are reused by retryWhen, hand the spec a stable copy
+        })));
+    }
+
+    public synchronized double balance() {
+        refill();
+        return balance;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        balance = Math.min(maxBalance, balance + (now - lastRefillNanos) / 1_000_000_000d * minPerSecond);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,190 @@
+package lab.rxspring.springbootwebclient.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+// Non-blocking token bucket for outbound calls. A request either takes a permit now, reserves the next free permit
+// and waits for it on a timer (no thread is parked), or is rejected at once when the wait would exceed maxWait or
+// maxQueue requests are already waiting. In adaptive mode a 429 pauses permits for Retry-After and cuts the rate,
+// which then recovers linearly while the upstream stops throttling. Hedged copies only take a permit that is free now:
+// queueing a hedge would delay it past its purpose, and a rejected hedge is dropped by RequestHedger.
+@Slf4j
+public class OutboundRateLimiter implements ExchangeFilterFunction {
+
+    private final CommentProperties.Resilience.RateLimit config;
+    private final LongSupplier nanoClock;
+    private final Clock wallClock;  // For HTTP-date Retry-After values
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter rejected;
+    private final Counter throttled;
+    private double ratePerSecond;
+    private long nextPermitNanos;  // Theoretical arrival time of the next permit (GCRA); permits are free while it is within the burst window
+    private long lastAdjustNanos;
+    private long lastDecreaseNanos;
+    private long pauseNanos;
+
+    public OutboundRateLimiter(CommentProperties.Resilience.RateLimit config, MeterRegistry meterRegistry) {
+        this(config, meterRegistry, System::nanoTime, Clock.systemUTC());
+    }
+
+    OutboundRateLimiter(CommentProperties.Resilience.RateLimit config, MeterRegistry meterRegistry, LongSupplier nanoClock, Clock wallClock) {
+        validate(config);
+        this.config = config;
+        this.nanoClock = nanoClock;
+        this.wallClock = wallClock;
+        this.ratePerSecond = config.getRatePerSecond();
+        long now = nanoClock.getAsLong();
+        this.nextPermitNanos = now;
+        this.lastAdjustNanos = now;
+        this.lastDecreaseNanos = now - config.getDefaultRetryAfter().toNanos();
+        this.waitTimer = Timer.builder("comments.upstream.ratelimit.wait")  // Time spent waiting for a permit, zero when one was free
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("comments.upstream.ratelimit.rejected").register(meterRegistry);
+        this.throttled = Counter.builder("comments.upstream.ratelimit.throttled").register(meterRegistry);  // 429 responses seen
+        Gauge.builder("comments.upstream.ratelimit.queue", queued, AtomicInteger::get)
+                .register(meterRegistry);
+        Gauge.builder("comments.upstream.ratelimit.rate", this, OutboundRateLimiter::currentRate)
+                .register(meterRegistry);
+    }
+
+    // Fails at startup instead of turning a typo into "never admit" or "always admit": the permit interval divides by the rate
+    private static void validate(CommentProperties.Resilience.RateLimit config) {
+        if (!(config.getRatePerSecond() > 0) || Double.isInfinite(config.getRatePerSecond())) {
+            throw new IllegalArgumentException("comments.resilience.rate-limit.rate-per-second must be a positive number, was " + config.getRatePerSecond());
+        }
+        if (config.getBurst() < 1) {
+            throw new IllegalArgumentException("comments.resilience.rate-limit.burst must be at least 1, was " + config.getBurst());
+        }
+        if (!(config.getMinRatePerSecond() > 0)) {
+            throw new IllegalArgumentException("comments.resilience.rate-limit.min-rate-per-second must be a positive number, was " + config.getMinRatePerSecond());
+        }
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!config.isEnabled()) {
+            return next.exchange(request);
+        }
+        return Mono.deferContextual(context -> {
+            long waitNanos = reserve(nanoClock.getAsLong(), RequestHedger.isHedge(context));
+            if (waitNanos < 0) {
+                rejected.increment();
+                return Mono.error(new RateLimitExceededException("Outbound rate limit reached for " + request.url()));
+            }
+            waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+            Mono<ClientResponse> exchange = config.isAdaptive()
+                    ? next.exchange(request).doOnNext(this::onResponse)
+                    : next.exchange(request);
+            if (waitNanos == 0) {
+                return exchange;
+            }
+            return Mono.delay(Duration.ofNanos(waitNanos))
+                    .doFinally(signal -> queued.decrementAndGet())  // Also on cancel, e.g. the caller's timeout
+                    .then(exchange);
+        });
+    }
+
+    public synchronized double currentRate() {
+        recover(nanoClock.getAsLong());
+        return ratePerSecond;
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    // Nanos to wait for the reserved permit, 0 if one is free now, or -1 if the request must be rejected.
+    // A positive result counts the caller as queued until filter's wait ends. freeOnly callers are never queued.
+    synchronized long reserve(long now, boolean freeOnly) {
+        recover(now);
+        long interval = (long) (1_000_000_000d / ratePerSecond);
+        long burstWindow = (config.getBurst() - 1L) * interval;
+        long arrival = Math.max(nextPermitNanos, now);
+        long waitNanos = arrival - burstWindow - now;
+        if (waitNanos <= 0) {
+            nextPermitNanos = arrival + interval;
+            return 0;
+        }
+        if (freeOnly || waitNanos > config.getMaxWait().toNanos() || queued.get() >= config.getMaxQueue()) {
+            return -1;
+        }
+        nextPermitNanos = arrival + interval;
+        queued.incrementAndGet();
+        return waitNanos;
+    }
+
+    private void onResponse(ClientResponse response) {
+        if (response.statusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+            throttled.increment();
+            throttle(nanoClock.getAsLong(), retryAfter(response.headers().asHttpHeaders()));
+        }
+    }
+
+    // Holds back new permits for the Retry-After period and cuts the rate once per throttling episode
+    private synchronized void throttle(long now, Duration retryAfter) {
+        if (now - lastDecreaseNanos >= pauseNanos) {  // 429s from requests already in flight belong to the same episode
+            double previous = ratePerSecond;
+            ratePerSecond = Math.max(config.getMinRatePerSecond(), ratePerSecond * config.getDecreaseFactor());
+            lastDecreaseNanos = now;
+            pauseNanos = retryAfter.toNanos();
+            log.warn("OutboundRateLimiter: upstream returned 429, pausing {} and lowering rate from {} to {} per second",
+                    retryAfter, previous, ratePerSecond);
+        }
+        lastAdjustNanos = Math.max(lastAdjustNanos, now + retryAfter.toNanos());  // Recovery starts once the pause is over
+        long burstWindow = (config.getBurst() - 1L) * (long) (1_000_000_000d / ratePerSecond);  // At the reduced rate, as reserve will see it
+        nextPermitNanos = Math.max(nextPermitNanos, now + retryAfter.toNanos() + burstWindow);
+    }
+
+    // Linear recovery towards the configured rate while no 429s arrive
+    private void recover(long now) {
+        if (now <= lastAdjustNanos) {  // Still inside a Retry-After pause
+            return;
+        }
+        if (ratePerSecond < config.getRatePerSecond()) {
+            ratePerSecond = Math.min(config.getRatePerSecond(),
+                    ratePerSecond + (now - lastAdjustNanos) / 1_000_000_000d * config.getRecoveryPerSecond());
+        }
+        lastAdjustNanos = now;
+    }
+
+    // Retry-After as delay-seconds or HTTP-date; the configured default when absent or unparsable
+    private Duration retryAfter(HttpHeaders headers) {
+        String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return config.getDefaultRetryAfter();
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                Duration untilDate = Duration.between(ZonedDateTime.now(wallClock), ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return untilDate.isNegative() ? Duration.ZERO : untilDate;
+            } catch (DateTimeParseException ex) {
+                return config.getDefaultRetryAfter();
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package lab.rxspring.springbootwebclient.client;
+
+// Raised locally when an outbound request cannot get a permit in time; the upstream was never called
+public class RateLimitExceededException extends RuntimeException {
+
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,109 @@
+package lab.rxspring.springbootwebclient.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+// Hedged requests: if an attempt has not answered after the hedge delay, a second copy is sent and whichever answers
+// first wins while the other is cancelled. Only the primary can fail the request: a hedge that errors is dropped.
+// The delay is either fixed or a tracked percentile of recent request latency (the whole logical request, hedge
+// included), and hedges are capped by an AttemptBudget so they stay a bounded share of upstream traffic.
+public class RequestHedger {
+
+    static final Object HEDGE_KEY = RequestHedger.class;  // Reactor context marker on the hedged copy
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);  // Recompute the tracked percentile at most this often
+
+    private final boolean enabled;
+    private final Duration fixedDelay;
+    private final double percentile;
+    private final Duration minDelay;
+    private final long minSamples;
+    private final AttemptBudget budget;
+    private final Timer latency;
+    private final Counter sent;
+    private final Counter won;
+    private final Counter rejected;
+    private final Counter failed;
+    private volatile long trackedDelayNanos;
+    private volatile long trackedAtNanos;
+
+    public RequestHedger(boolean enabled, Duration fixedDelay, double percentile, Duration minDelay, long minSamples,
+                         AttemptBudget budget, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.fixedDelay = fixedDelay;
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.minSamples = minSamples;
+        this.budget = budget;
+        Timer.Builder latencyBuilder = Timer.builder("comments.upstream.hedge.latency")  // Request latency with hedging, successful responses only
+                .distributionStatisticExpiry(Duration.ofMinutes(1))  // Percentile follows the last minute or so of traffic
+                .distributionStatisticBufferLength(3);
+        if (percentile > 0) {
+            latencyBuilder.publishPercentiles(percentile);
+        }
+        this.latency = latencyBuilder.register(meterRegistry);
+        this.sent = Counter.builder("comments.upstream.hedges").tag("result", "sent").register(meterRegistry);
+        this.won = Counter.builder("comments.upstream.hedges").tag("result", "won").register(meterRegistry);
+        this.rejected = Counter.builder("comments.upstream.hedges").tag("result", "rejected_by_budget").register(meterRegistry);
+        this.failed = Counter.builder("comments.upstream.hedges").tag("result", "failed").register(meterRegistry);
+        this.trackedDelayNanos = fixedDelay.toNanos();
+    }
+
+    // Wraps a cold, re-subscribable attempt; each subscription of the result is one logical request
+    public <T> Mono<T> hedge(Mono<T> attempt) {
+        if (!enabled) {
+            return attempt;
+        }
+        return Mono.defer(() -> {
+            budget.recordRequest();
+            long startNanos = System.nanoTime();
+            Mono<T> hedged = Mono.delay(currentDelay())
+                    .flatMap(tick -> {
+                        if (!budget.tryAcquire()) {  // Over budget: let the primary finish on its own
+                            rejected.increment();
+                            return Mono.<T>never();
+                        }
+                        sent.increment();
+                        return attempt
+                                .contextWrite(Context.of(HEDGE_KEY, true))  // Lets the outbound rate limiter refuse to queue it
+                                .doOnNext(value -> won.increment())  // Only emits if it beat the primary
+                                .onErrorResume(err -> {  // A fast hedge error (503, connect failure, pool limit) must not cancel a healthy primary
+                                    failed.increment();
+                                    return Mono.never();
+                                });
+                    });
+            // The loser is cancelled, which releases its connection. Latency is measured from the start of the
+            // logical request: timing attempts separately would drop the slow losers and drag the percentile down.
+            return Mono.firstWithSignal(attempt, hedged)
+                    .doOnNext(value -> latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    // True inside the hedged copy of a request
+    public static boolean isHedge(ContextView context) {
+        return context.getOrDefault(HEDGE_KEY, false);
+    }
+
+    public Duration currentDelay() {
+        if (percentile <= 0 || latency.count() < minSamples) {
+            return fixedDelay;
+        }
+        long now = System.nanoTime();
+        if (now - trackedAtNanos > DELAY_REFRESH_NANOS) {
+            long percentileNanos = fixedDelay.toNanos();
+            for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+                percentileNanos = (long) value.value(TimeUnit.NANOSECONDS);
+            }
+            trackedDelayNanos = Math.max(minDelay.toNanos(), percentileNanos);
+            trackedAtNanos = now;
+        }
+        return Duration.ofNanos(trackedDelayNanos);
+    }
+}
@@ -0,0 +1,168 @@
+package lab.rxspring.springbootwebclient.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+// Tunables for the comment pipeline, bound from the "comments" section of application.yaml
+@Data
+@ConfigurationProperties(prefix = "comments")
+public class CommentProperties {
+
+    private Bulk bulk = new Bulk();
+    private Streaming streaming = new Streaming();
+    private Collection collection = new Collection();
+    private Cache cache = new Cache();
+    private Read read = new Read();
+    private Http http = new Http();
+    private Resilience resilience = new Resilience();
+    private WriteBehind writeBehind = new WriteBehind();
+    private Refresh refresh = new Refresh();
+    private Logging logging = new Logging();
+
+    @Data
+    public static class Bulk {
+        private int concurrency = 16;  // Max upstream fetches in flight for one bulk request
+        private int batchSize = 200;  // Rows per multi-row upsert statement
+        private int maxIds = 10_000;  // Upper bound on ids accepted by a single bulk request
+    }
+
+    @Data
+    public static class Streaming {
+        private int concurrency = 8;  // Upstream fetches in flight per streaming request; completed items wait on client demand
+        private int maxIds = 1_000;  // Upper bound on ids accepted by a single streaming request
+    }
+
+    @Data
+    public static class Collection {
+        private int batchSize = 200;  // Decoded comments per multi-row upsert while streaming the upstream collection
+        private Duration maxWait = Duration.ofMillis(200);  // Upsert a partial batch when the download stalls this long
+    }
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;  // Max cached comments before size-based eviction
+        private Duration ttl = Duration.ofSeconds(30);  // Time after write before an entry is refetched
+    }
+
+    @Data
+    public static class Read {
+        private Duration maxAge = Duration.ofMinutes(10);  // Stored rows confirmed against upstream within this window are served without a fetch
+        private boolean serveStaleOnError = true;  // Serve the stored row when the upstream fallback yields nothing
+        private int defaultPageSize = 100;  // Page size when the request does not set limit
+        private int maxPageSize = 1_000;  // Upper bound on limit for one page
+    }
+
+    @Data
+    public static class Http {
+        private String baseUrl = "https://jsonplaceholder.typicode.com/comments";  // Upstream comments resource
+        private Duration connectTimeout = Duration.ofSeconds(5);  // Connection establishment
+        private Duration responseTimeout = Duration.ofSeconds(10);  // Request sent to response headers received
+        private Duration readTimeout = Duration.ofSeconds(10);  // No inbound data on the channel
+        private Duration writeTimeout = Duration.ofSeconds(10);  // Outbound write not completed
+        private boolean http2 = false;  // Negotiate HTTP/2 (ALPN over TLS, h2c otherwise) with HTTP/1.1 fallback
+        private boolean compress = true;  // Send Accept-Encoding: gzip and decompress responses
+        private boolean metrics = true;  // Publish reactor.netty.http.client.* request/connect/TLS timings
+        private DataSize maxInMemorySize = DataSize.ofKilobytes(256);  // Max bytes buffered to decode one value; collections are decoded per element
+        private Pool pool = new Pool();
+
+        @Data
+        public static class Pool {
+            private int maxConnections = 100;  // Upper bound on open upstream connections
+            private int pendingAcquireMaxCount = 1_000;  // Requests allowed to wait for a connection before failing fast
+            private Duration pendingAcquireTimeout = Duration.ofSeconds(5);  // Max wait for a pooled connection
+            private Duration maxIdleTime = Duration.ofSeconds(30);  // Close connections idle longer than this
+            private Duration maxLifeTime = Duration.ofMinutes(5);  // Recycle connections older than this
+            private Duration evictInBackground = Duration.ofSeconds(30);  // Background sweep interval for idle/expired connections
+            private boolean metrics = true;  // Publish reactor.netty.connection.provider.* gauges
+        }
+    }
+
+    @Data
+    public static class Resilience {
+        private Duration timeout = Duration.ofSeconds(3);  // Per-attempt timeout for the comment fetch
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+        private Retry retry = new Retry();
+        private Hedge hedge = new Hedge();
+        private RateLimit rateLimit = new RateLimit();
+
+        @Data
+        public static class CircuitBreaker {
+            private float failureRateThreshold = 50f;  // Failure percentage that opens the breaker
+            private int slidingWindowSize = 50;  // Calls considered when computing the failure rate
+            private int minimumNumberOfCalls = 20;  // Calls required before the failure rate is evaluated
+            private Duration waitDurationInOpenState = Duration.ofSeconds(10);  // Time open before half-open probing
+            private int permittedCallsInHalfOpenState = 5;  // Probe calls allowed while half-open
+        }
+
+        @Data
+        public static class Retry {
+            private int maxRetries = 2;  // Retries after the first attempt, subject to the budget
+            private Duration minBackoff = Duration.ofMillis(200);
+            private Duration maxBackoff = Duration.ofSeconds(2);
+            private double jitter = 0.5;  // Randomization factor applied to each backoff
+            private double budgetPercent = 10;  // Retries allowed as a percentage of requests
+            private double budgetMinPerSecond = 1;  // Retries always allowed per second at low traffic
+            private double budgetMaxBalance = 20;  // Cap on banked retry tokens
+        }
+
+        @Data
+        public static class Hedge {
+            private boolean enabled = false;  // Send a second attempt when the first is slow; the first answer wins
+            private Duration delay = Duration.ofMillis(200);  // Fixed hedge delay, also used until minSamples latencies are tracked
+            private double percentile = 0.95;  // Hedge after this percentile of recent request latency (hedges included); 0 always uses the fixed delay
+            private Duration minDelay = Duration.ofMillis(20);  // Floor for the tracked delay
+            private long minSamples = 100;  // Requests recorded before the tracked percentile replaces the fixed delay
+            private double budgetPercent = 5;  // Hedges allowed as a percentage of requests
+            private double budgetMinPerSecond = 1;  // Hedges always allowed per second at low traffic
+            private double budgetMaxBalance = 10;  // Cap on banked hedge tokens
+        }
+
+        @Data
+        public static class RateLimit {
+            private boolean enabled = false;  // Token bucket on every outbound attempt, retries and hedges included
+            private double ratePerSecond = 50;  // Sustained upstream request rate
+            private int burst = 20;  // Requests allowed back to back before pacing applies
+            private int maxQueue = 500;  // Requests waiting for a permit before new ones are rejected
+            private Duration maxWait = Duration.ofSeconds(1);  // Longest wait a request accepts; a longer one is rejected at once
+            private boolean adaptive = true;  // On 429, pause for Retry-After and cut the rate, then recover gradually
+            private double decreaseFactor = 0.5;  // Rate multiplier applied once per 429 episode
+            private double minRatePerSecond = 1;  // Floor for the adaptive rate
+            private double recoveryPerSecond = 1;  // Rate regained per second without 429s, up to ratePerSecond
+            private Duration defaultRetryAfter = Duration.ofSeconds(1);  // Pause when a 429 has no usable Retry-After
+        }
+    }
+
+    @Data
+    public static class WriteBehind {
+        private boolean enabled = false;  // Buffer single-comment upserts and flush them as multi-row statements
+        private int maxBatchSize = 100;  // Flush as soon as this many writes are buffered
+        private Duration maxWait = Duration.ofMillis(20);  // Flush a partial batch after this long
+        private int flushConcurrency = 2;  // Batched statements in flight at once
+        private int capacity = 10_000;  // Pending writes before callers fall back to direct upserts
+        private Duration shutdownTimeout = Duration.ofSeconds(10);  // Time allowed to drain the buffer on shutdown
+    }
+
+    @Data
+    public static class Refresh {
+        private boolean enabled = false;  // Revalidate stale rows in the background instead of only on reads
+        private Duration initialDelay = Duration.ofSeconds(30);  // Wait after startup before the first cycle
+        private Duration interval = Duration.ofMinutes(1);  // Time between cycle starts; a tick during a running cycle is skipped
+        private Duration staleAfter = Duration.ofMinutes(10);  // Rows not confirmed against upstream for this long are refreshed
+        private int batchSize = 500;  // Max comments refreshed per cycle, hot ids included
+        private int hotIds = 100;  // Most frequently read ids considered first each cycle
+        private int concurrency = 4;  // Refresh fetches in flight
+        private double ratePerSecond = 20;  // Upper bound on refresh fetches started per second
+        private int trackedIds = 10_000;  // Ids whose read frequency is tracked for prioritization
+        private String checkpointName = "comments-refresh";  // Row in sync_checkpoints holding the scan position
+    }
+
+    @Data
+    public static class Logging {
+        private double sampleRate = 1.0;  // Fraction of requests whose hot-path diagnostic lines are logged; warnings and errors always are
+    }
+}
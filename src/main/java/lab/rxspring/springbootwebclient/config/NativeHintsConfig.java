@@ -0,0 +1,45 @@
+package lab.rxspring.springbootwebclient.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import lab.rxspring.springbootwebclient.dao.CommentDao;
+import lab.rxspring.springbootwebclient.dao.SyncCheckpointDao;
+import lab.rxspring.springbootwebclient.model.BulkCommentRequest;
+import lab.rxspring.springbootwebclient.model.BulkCommentResponse;
+import lab.rxspring.springbootwebclient.model.BulkCommentResult;
+import lab.rxspring.springbootwebclient.model.Comment;
+import lab.rxspring.springbootwebclient.model.CommentDto;
+import lab.rxspring.springbootwebclient.model.SyncCheckpoint;
+import lab.rxspring.springbootwebclient.model.WriteOutcome;
+
+// Reflection and resource hints that Spring AOT cannot infer on its own, used by GraalVM native images.
+// Types only reached through WebClient bodies, @Query result mapping or Comment's own ObjectMapper are bound here.
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.CommentRuntimeHints.class)
+@RegisterReflectionForBinding({
+        CommentDto.class,  // Decoded from upstream with bodyToMono / bodyToFlux
+        Comment.class,  // Serialized by Comment.toString and mapped from @Query rows, including write_outcome
+        WriteOutcome.class,
+        SyncCheckpoint.class,
+        BulkCommentRequest.class,
+        BulkCommentResponse.class,
+        BulkCommentResult.class
+})
+public class NativeHintsConfig {
+
+    static class CommentRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // @Query methods bind parameters by name, read from the compiled -parameters metadata
+            hints.reflection().registerType(CommentDao.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(SyncCheckpointDao.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.resources().registerPattern("schema.sql");  // Applied when spring.sql.init.mode is enabled
+        }
+    }
+}
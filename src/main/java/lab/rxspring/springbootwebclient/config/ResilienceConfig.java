@@ -0,0 +1,82 @@
+package lab.rxspring.springbootwebclient.config;
+
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lab.rxspring.springbootwebclient.client.AttemptBudget;
+import lab.rxspring.springbootwebclient.client.OutboundRateLimiter;
+import lab.rxspring.springbootwebclient.client.RateLimitExceededException;
+import lab.rxspring.springbootwebclient.client.RequestHedger;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Configuration
+public class ResilienceConfig {
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(CommentProperties properties, MeterRegistry meterRegistry) {
+        CommentProperties.Resilience.CircuitBreaker config = properties.getResilience().getCircuitBreaker();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(config.getSlidingWindowSize())
+                .minimumNumberOfCalls(config.getMinimumNumberOfCalls())
+                .failureRateThreshold(config.getFailureRateThreshold())
+                .waitDurationInOpenState(config.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(config.getPermittedCallsInHalfOpenState())
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)  // Start probing without waiting for a call
+                .recordException(ResilienceConfig::isUpstreamFailure)  // 4xx answers are healthy upstream behaviour
+                .ignoreExceptions(RateLimitExceededException.class)  // Rejected locally, upstream was not called
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);  // resilience4j.circuitbreaker.* state and call meters
+        return registry;
+    }
+
+    @Bean
+    public CircuitBreaker commentCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("comments-upstream");
+        circuitBreaker.getEventPublisher()
+                .onStateTransition(event -> log.warn("CircuitBreaker {}: {}", event.getCircuitBreakerName(), event.getStateTransition()));
+        return circuitBreaker;
+    }
+
+    @Bean
+    public AttemptBudget retryBudget(CommentProperties properties, MeterRegistry meterRegistry) {
+        CommentProperties.Resilience.Retry retry = properties.getResilience().getRetry();
+        AttemptBudget budget = new AttemptBudget(retry.getBudgetPercent(), retry.getBudgetMinPerSecond(), retry.getBudgetMaxBalance());
+        Gauge.builder("comments.upstream.retry.budget.balance", budget, AttemptBudget::balance)
+                .register(meterRegistry);
+        return budget;
+    }
+
+    @Bean
+    public RequestHedger requestHedger(CommentProperties properties, MeterRegistry meterRegistry) {
+        CommentProperties.Resilience.Hedge hedge = properties.getResilience().getHedge();
+        AttemptBudget budget = new AttemptBudget(hedge.getBudgetPercent(), hedge.getBudgetMinPerSecond(), hedge.getBudgetMaxBalance());
+        Gauge.builder("comments.upstream.hedge.budget.balance", budget, AttemptBudget::balance)
+                .register(meterRegistry);
+        return new RequestHedger(hedge.isEnabled(), hedge.getDelay(), hedge.getPercentile(), hedge.getMinDelay(),
+                hedge.getMinSamples(), budget, meterRegistry);
+    }
+
+    @Bean
+    public OutboundRateLimiter outboundRateLimiter(CommentProperties properties, MeterRegistry meterRegistry) {
+        return new OutboundRateLimiter(properties.getResilience().getRateLimit(), meterRegistry);
+    }
+
+    // Failures that indicate an unhealthy upstream: transport errors, timeouts and 5xx responses
+    public static boolean isUpstreamFailure(Throwable throwable) {
+        return throwable instanceof WebClientRequestException
+                || throwable instanceof TimeoutException
+                || (throwable instanceof WebClientResponseException e && e.getStatusCode().is5xxServerError());
+    }
+}
@@ -1,8 +1,8 @@
 package lab.rxspring.springbootwebclient.config;
 
-import java.time.Duration;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,64 +14,62 @@ import org.springframework.web.reactive.function.client.*;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
+import lab.rxspring.springbootwebclient.client.OutboundRateLimiter;
+import lab.rxspring.springbootwebclient.logging.RequestContext;
+import lab.rxspring.springbootwebclient.logging.RequestLog;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
-import reactor.util.retry.Retry;
+import reactor.netty.resources.ConnectionProvider;
 
 @Slf4j
 @Configuration
 public class WebClientConfig {
 
+    private static final Pattern NUMERIC_PATH_SEGMENT = Pattern.compile("/\\d+");
+
+    // Dedicated, sized pool for upstream calls instead of reactor-netty's shared default pool
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider commentConnectionProvider(CommentProperties properties) {
+        CommentProperties.Http.Pool pool = properties.getHttp().getPool();
+        return ConnectionProvider.builder("comments-upstream")
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())  // Fail fast once this many requests wait for a connection
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .metrics(pool.isMetrics())  // Active/idle/pending gauges via Micrometer
+                .build();
+    }
+
     @Bean
-    public WebClient webClient() {
+    public WebClient webClient(ConnectionProvider commentConnectionProvider, CommentProperties properties, OutboundRateLimiter outboundRateLimiter) {
         return WebClient.builder()
-                .baseUrl("https://jsonplaceholder.typicode.com/comments/")
+                .baseUrl(properties.getHttp().getBaseUrl())  // Upstream comments resource, from comments.http.base-url
 
                 // Set default headers for all requests
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
                 .defaultHeader(HttpHeaders.USER_AGENT, "MyApp/1.0")
 
-                // Set connection timeout (how long to wait for connection establishment)
-                .clientConnector(new ReactorClientHttpConnector(
-                        HttpClient.create()
-                                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
-                                .responseTimeout(Duration.ofSeconds(10))  // Response timeout
-                                .doOnConnected(conn ->
-                                        conn.addHandlerLast(new ReadTimeoutHandler(10))  // Read timeout
-                                                .addHandlerLast(new WriteTimeoutHandler(10))  // Write timeout
-                                )
-                ))
-
-                // Configure connection pool settings
-                .clientConnector(new ReactorClientHttpConnector(
-                        HttpClient.create().baseUrl("https://jsonplaceholder.typicode.com/comments/")
-                ))
-
-                // Set max in-memory buffer size for request/response (default 256KB)
+                // Single connector: pooled connections, timeouts, protocol and compression
+                .clientConnector(new ReactorClientHttpConnector(httpClient(commentConnectionProvider, properties.getHttp())))
+
+                // Max bytes buffered per decoded value; single comments are small and collections are decoded element by element
                 .codecs(configurer -> configurer.defaultCodecs()
-                        .maxInMemorySize(16 * 1024 * 1024))  // 16MB buffer
+                        .maxInMemorySize((int) properties.getHttp().getMaxInMemorySize().toBytes()))
 
-                // Add request/response logging filter for debugging
-                .filter(ExchangeFilterFunction.ofRequestProcessor(clientRequest -> {
-                    log.info("Request: {} {}", clientRequest.method(), clientRequest.url());
-                    return Mono.just(clientRequest);
-                }))
+                // Add request/response logging filter for debugging, for sampled requests only
+                .filter(ExchangeFilterFunction.ofRequestProcessor(clientRequest -> RequestLog
+                        .whenSampled(() -> log.info("Request: {} {}", clientRequest.method(), clientRequest.url()))
+                        .thenReturn(clientRequest)))
 
                 // Add response logging filter
-                .filter(ExchangeFilterFunction.ofResponseProcessor(clientResponse -> {
-                    log.info("Response: {}", clientResponse.statusCode());
-                    return Mono.just(clientResponse);
-                }))
-
-                // Add retry filter (alternative to retryWhen in method)
-                .filter((request, next) ->
-                        next.exchange(request)
-                                .retryWhen(Retry.backoff(3, Duration.ofMillis(500))
-                                        .filter(throwable -> throwable instanceof WebClientRequestException)
-                                )
-                )
+                .filter(ExchangeFilterFunction.ofResponseProcessor(clientResponse -> RequestLog
+                        .whenSampled(() -> log.info("Response: {}", clientResponse.statusCode()))
+                        .thenReturn(clientResponse)))
 
                 // Add global error handler filter
                 .filter(ExchangeFilterFunction.ofResponseProcessor(response -> {
@@ -89,10 +87,13 @@ public class WebClientConfig {
                     return next.exchange(filtered);
                 })
 
-                // Add custom headers based on request
-                .defaultRequest(spec -> spec
-                        .header("X-Request-ID", UUID.randomUUID().toString())
-                )
+                // Propagate the inbound request's correlation id from the Reactor context; calls outside a request get their own
+                .filter((request, next) -> Mono.deferContextual(context -> {
+                    RequestContext requestContext = RequestContext.current(context);
+                    return next.exchange(ClientRequest.from(request)
+                            .header(RequestContext.HEADER, requestContext != null ? requestContext.requestId() : RequestContext.newRequestId())
+                            .build());
+                }))
 
                 // Set default URI variables
                 .defaultUriVariables(Map.of("version", "v1"))
@@ -106,17 +107,31 @@ public class WebClientConfig {
                     return next.exchange(request);
                 })
 
-                // Configure exchange strategies for custom codecs
-                .exchangeStrategies(ExchangeStrategies.builder()
-                        .codecs(configurer -> {
-                            configurer.defaultCodecs().maxInMemorySize(16 * 1024 * 1024);
-                            // Add custom encoders/decoders here if needed
-                        })
-                        .build())
+                // Pace every outbound attempt (retries and hedges included) to the upstream quota
+                .filter(outboundRateLimiter)
 
                 // Clone configuration for modification (useful for testing)
                 .clone()
 
                 .build();
     }
+
+    private static HttpClient httpClient(ConnectionProvider connectionProvider, CommentProperties.Http http) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())  // Connection timeout
+                .responseTimeout(http.getResponseTimeout())  // Response timeout
+                .compress(http.isCompress())  // gzip/deflate response compression
+                .metrics(http.isMetrics(), uri -> NUMERIC_PATH_SEGMENT.matcher(uri).replaceAll("/{id}"))  // Template ids to bound tag cardinality
+                // Read/write timeouts are installed per request so idle pooled connections are governed by maxIdleTime only
+                .doOnRequest((request, conn) ->
+                        conn.addHandlerLast(new ReadTimeoutHandler(http.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS))  // Read timeout
+                                .addHandlerLast(new WriteTimeoutHandler(http.getWriteTimeout().toMillis(), TimeUnit.MILLISECONDS))  // Write timeout
+                );
+        if (http.isHttp2()) {
+            httpClient = http.getBaseUrl().startsWith("https")
+                    ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure()  // ALPN negotiation over TLS
+                    : httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);  // Cleartext upgrade
+        }
+        return httpClient;
+    }
 }
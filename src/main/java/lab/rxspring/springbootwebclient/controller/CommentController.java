@@ -1,14 +1,24 @@
 package lab.rxspring.springbootwebclient.controller;
 
+import java.util.List;
 
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import lab.rxspring.springbootwebclient.logging.RequestLog;
+import lab.rxspring.springbootwebclient.model.BulkCommentRequest;
+import lab.rxspring.springbootwebclient.model.BulkCommentResponse;
+import lab.rxspring.springbootwebclient.model.BulkCommentResult;
 import lab.rxspring.springbootwebclient.model.Comment;
 import lab.rxspring.springbootwebclient.service.CommentService;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Slf4j
@@ -24,7 +34,28 @@ public class CommentController {
 
     @GetMapping("/{id}")
     public Mono<Comment> getCommentById(@PathVariable String id) {
-        log.info("get external comment by id {}", id);
-        return commentService.getExternalCommentById(id);
+        return RequestLog.whenSampled(() -> log.info("get external comment by id {}", id))
+                .then(commentService.getExternalCommentById(id));
+    }
+
+    // e.g. GET /api/v1/external/comments?ids=1,2,3 with Accept: application/x-ndjson or text/event-stream
+    @GetMapping(params = "ids", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Comment> streamCommentsByIds(@RequestParam List<String> ids) {
+        log.info("stream external comments, ids: {}", ids.size());
+        return commentService.streamExternalComments(ids);
+    }
+
+    @PostMapping("/bulk")
+    public Mono<BulkCommentResponse> ingestComments(@RequestBody BulkCommentRequest request) {
+        log.info("bulk ingest external comments, ids: {}, range: [{}, {}]",
+                request.getIds() == null ? 0 : request.getIds().size(), request.getFromId(), request.getToId());
+        return commentService.ingestExternalComments(request);
+    }
+
+    // e.g. POST /api/v1/external/comments/sync?postId=1; one result per stored comment, streamed as they are saved
+    @PostMapping(value = "/sync", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkCommentResult> syncComments(@RequestParam(required = false) Long postId) {
+        log.info("sync external comment collection, postId: {}", postId);
+        return commentService.syncExternalCollection(postId);
     }
 }
@@ -0,0 +1,45 @@
+package lab.rxspring.springbootwebclient.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import lab.rxspring.springbootwebclient.model.Comment;
+import lab.rxspring.springbootwebclient.service.CommentQueryService;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Reads served from Postgres; see CommentController for endpoints that always go to the external API
+@Slf4j
+@RequestMapping("/api/v1/comments")
+@RestController
+public class CommentQueryController {
+
+    private final CommentQueryService commentQueryService;
+
+    public CommentQueryController(CommentQueryService commentQueryService) {
+        this.commentQueryService = commentQueryService;
+    }
+
+    @GetMapping("/{externalCommentId}")
+    public Mono<Comment> getComment(@PathVariable long externalCommentId) {
+        log.debug("get comment {}", externalCommentId);
+        return commentQueryService.getComment(externalCommentId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment " + externalCommentId + " not found")));
+    }
+
+    // e.g. GET /api/v1/comments?postId=1&after=5&limit=100, as a JSON array or NDJSON (Accept: application/x-ndjson)
+    @GetMapping(params = "postId", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Comment> getCommentsByPost(@RequestParam long postId,
+                                           @RequestParam(defaultValue = "0") long after,
+                                           @RequestParam(required = false) Integer limit) {
+        log.debug("get comments for post {}, after: {}, limit: {}", postId, after, limit);
+        return commentQueryService.getCommentsByPost(postId, after, limit);
+    }
+}
@@ -1,56 +1,238 @@
 package lab.rxspring.springbootwebclient.dao;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 
 import lab.rxspring.springbootwebclient.model.Comment;
+import lab.rxspring.springbootwebclient.model.WriteOutcome;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
 public interface CommentDao extends ReactiveCrudRepository<Comment, Long> {
 
     @Query("""
-            INSERT INTO comments (
-                post_id,
-                external_comment_id,
-                name,
-                email,
-                body,
-                created_at,
-                updated_at
-            )
-            VALUES (
-                :postId,
-                :externalCommentId,
-                :name,
-                :email,
-                :body,
-                NOW(),
-                NOW()
+            SELECT *
+            FROM comments
+            WHERE external_comment_id = :externalCommentId
+            """)
+    Mono<Comment> findByExternalCommentId(Long externalCommentId);
+
+    // Stored row with fresh = whether it was confirmed against upstream within maxAgeSeconds.
+    // Like findStaleAfter this uses the database clock, so reads and the refresher agree on which rows are stale.
+    @Query("""
+            SELECT *,
+                   COALESCE(synced_at, updated_at) >= NOW() - CAST(:maxAgeSeconds AS BIGINT) * INTERVAL '1 second' AS fresh
+            FROM comments
+            WHERE external_comment_id = :externalCommentId
+            """)
+    Mono<Comment> findWithFreshness(Long externalCommentId, long maxAgeSeconds);
+
+    // One page of a post's comments in external ID order, starting after the given external ID (keyset pagination)
+    @Query("""
+            SELECT *
+            FROM comments
+            WHERE post_id = :postId
+              AND external_comment_id > :afterExternalCommentId
+            ORDER BY external_comment_id
+            LIMIT :limit
+            """)
+    Flux<Comment> findByPostIdAfter(long postId, long afterExternalCommentId, int limit);
+
+    // Inserts or updates comments. A row is only rewritten when its content hash (see contentHash) or ETag changed;
+    // the current row is returned either way with write_outcome INSERTED, UPDATED or UNCHANGED.
+    // Comments without validators (the collection endpoint sends none) keep the stored ETag and Last-Modified.
+    // The column arrays are index-aligned, one element per comment; callers use upsertBatch rather than building them.
+    // The same externalCommentId must not appear twice in one call (ON CONFLICT cannot touch a row twice).
+    @Query("""
+            WITH incoming AS (
+                SELECT *
+                FROM UNNEST(
+                    CAST(:postIds AS BIGINT[]),
+                    CAST(:externalCommentIds AS BIGINT[]),
+                    CAST(:names AS TEXT[]),
+                    CAST(:emails AS TEXT[]),
+                    CAST(:bodies AS TEXT[]),
+                    CAST(:etags AS TEXT[]),
+                    CAST(:lastModifieds AS TEXT[]),
+                    CAST(:contentHashes AS TEXT[])
+                ) AS batch (post_id, external_comment_id, name, email, body, etag, last_modified, content_hash)
+            ),
+            upserted AS (
+                INSERT INTO comments (
+                    post_id,
+                    external_comment_id,
+                    name,
+                    email,
+                    body,
+                    etag,
+                    last_modified,
+                    content_hash,
+                    created_at,
+                    updated_at,
+                    synced_at
+                )
+                SELECT
+                    post_id,
+                    external_comment_id,
+                    name,
+                    email,
+                    body,
+                    etag,
+                    last_modified,
+                    content_hash,
+                    NOW(),
+                    NOW(),
+                    NOW()
+                FROM incoming
+                ON CONFLICT (external_comment_id)
+                DO UPDATE SET
+                    post_id = EXCLUDED.post_id,
+                    name = EXCLUDED.name,
+                    email = EXCLUDED.email,
+                    body = EXCLUDED.body,
+                    etag = COALESCE(EXCLUDED.etag, comments.etag),
+                    last_modified = COALESCE(EXCLUDED.last_modified, comments.last_modified),
+                    content_hash = EXCLUDED.content_hash,
+                    updated_at = NOW(),
+                    synced_at = NOW()
+                WHERE comments.content_hash IS DISTINCT FROM EXCLUDED.content_hash
+                   OR (EXCLUDED.etag IS NOT NULL AND comments.etag IS DISTINCT FROM EXCLUDED.etag)
+                RETURNING
+                        id,
+                        post_id,
+                        external_comment_id,
+                        name,
+                        email,
+                        body,
+                        etag,
+                        last_modified,
+                        created_at,
+                        updated_at,
+                        (xmax = 0) AS inserted
             )
-            ON CONFLICT (external_comment_id)
-            DO UPDATE SET
-                post_id = EXCLUDED.post_id,
-                name = EXCLUDED.name,
-                email = EXCLUDED.email,
-                body = EXCLUDED.body,
-                updated_at = NOW()
-            RETURNING
+            SELECT
                     id,
                     post_id,
                     external_comment_id,
                     name,
                     email,
                     body,
+                    etag,
+                    last_modified,
                     created_at,
-                    updated_at
+                    updated_at,
+                    CASE WHEN inserted THEN 'INSERTED' ELSE 'UPDATED' END AS write_outcome
+            FROM upserted
+            UNION ALL
+            SELECT
+                    c.id,
+                    c.post_id,
+                    c.external_comment_id,
+                    c.name,
+                    c.email,
+                    c.body,
+                    c.etag,
+                    c.last_modified,
+                    c.created_at,
+                    c.updated_at,
+                    'UNCHANGED' AS write_outcome
+            FROM comments c
+            JOIN incoming i ON i.external_comment_id = c.external_comment_id
+            WHERE NOT EXISTS (SELECT 1 FROM upserted u WHERE u.external_comment_id = c.external_comment_id)
             """)
-    Mono<Comment> upsert(
-            Long postId,
-            Long externalCommentId,
-            String name,
-            String email,
-            String body
+    Flux<Comment> upsertAll(
+            Long[] postIds,
+            Long[] externalCommentIds,
+            String[] names,
+            String[] emails,
+            String[] bodies,
+            String[] etags,
+            String[] lastModifieds,
+            String[] contentHashes
     );
+
+    // Inserts or updates one comment, see upsertAll
+    default Mono<Comment> upsert(Comment comment) {
+        return upsertBatch(List.of(comment)).next();
+    }
+
+    // Runs upsertAll for a list of comments; external IDs must be distinct within the list.
+    // A row committed by a concurrent transaction after the statement's snapshot is locked by the conflict but visible
+    // to neither half of the UNION, so ids missing from the result are re-read in a new statement as UNCHANGED.
+    default Flux<Comment> upsertBatch(List<Comment> comments) {
+        return upsertAll(
+                comments.stream().map(Comment::getPostId).toArray(Long[]::new),
+                comments.stream().map(Comment::getExternalCommentId).toArray(Long[]::new),
+                comments.stream().map(Comment::getName).toArray(String[]::new),
+                comments.stream().map(Comment::getEmail).toArray(String[]::new),
+                comments.stream().map(Comment::getBody).toArray(String[]::new),
+                comments.stream().map(Comment::getEtag).toArray(String[]::new),
+                comments.stream().map(Comment::getLastModified).toArray(String[]::new),
+                comments.stream().map(CommentDao::contentHash).toArray(String[]::new))
+                .collectList()
+                .flatMapMany(saved -> {
+                    Set<Long> returned = saved.stream().map(Comment::getExternalCommentId).collect(Collectors.toSet());
+                    return Flux.fromIterable(saved)
+                            .concatWith(Flux.fromIterable(comments)
+                                    .map(Comment::getExternalCommentId)
+                                    .filter(externalCommentId -> !returned.contains(externalCommentId))
+                                    .concatMap(this::findByExternalCommentId)
+                                    .doOnNext(row -> row.setWriteOutcome(WriteOutcome.UNCHANGED)));
+                });
+    }
+
+    // MD5 over post_id, name, email and body. Each text field is length-prefixed and NULL has its own marker,
+    // so moving a value between fields or swapping NULL for an empty string changes the hash.
+    static String contentHash(Comment comment) {
+        StringBuilder content = new StringBuilder().append(comment.getPostId()).append(';');
+        for (String field : new String[]{comment.getName(), comment.getEmail(), comment.getBody()}) {
+            content.append(field == null ? "-1:" : field.length() + ":" + field).append(';');
+        }
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is required by every Java platform", e);
+        }
+    }
+
+    // Rows not confirmed against upstream for staleAfterSeconds, in external ID order after the given checkpoint.
+    // Staleness is computed with the database clock, the same one that writes synced_at and updated_at.
+    @Query("""
+            SELECT *
+            FROM comments
+            WHERE external_comment_id > :afterExternalCommentId
+              AND COALESCE(synced_at, updated_at) < NOW() - CAST(:staleAfterSeconds AS BIGINT) * INTERVAL '1 second'
+            ORDER BY external_comment_id
+            LIMIT :limit
+            """)
+    Flux<Comment> findStaleAfter(Long afterExternalCommentId, long staleAfterSeconds, int limit);
+
+    // Subset of the given external IDs whose rows were not confirmed against upstream for staleAfterSeconds
+    @Query("""
+            SELECT *
+            FROM comments
+            WHERE external_comment_id = ANY(CAST(:externalCommentIds AS BIGINT[]))
+              AND COALESCE(synced_at, updated_at) < NOW() - CAST(:staleAfterSeconds AS BIGINT) * INTERVAL '1 second'
+            """)
+    Flux<Comment> findStaleAmong(Long[] externalCommentIds, long staleAfterSeconds);
+
+    // Marks rows as confirmed against upstream without rewriting their content (e.g. after a 304 or an unchanged payload)
+    @Modifying
+    @Query("""
+            UPDATE comments
+            SET synced_at = NOW()
+            WHERE external_comment_id = ANY(CAST(:externalCommentIds AS BIGINT[]))
+            """)
+    Mono<Integer> markSynced(Long[] externalCommentIds);
 }
@@ -0,0 +1,25 @@
+package lab.rxspring.springbootwebclient.dao;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import lab.rxspring.springbootwebclient.model.SyncCheckpoint;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface SyncCheckpointDao extends ReactiveCrudRepository<SyncCheckpoint, String> {
+
+    // Creates or moves the named checkpoint; save() cannot be used because the id is assigned, not generated
+    @Modifying
+    @Query("""
+            INSERT INTO sync_checkpoints (name, last_external_comment_id, updated_at)
+            VALUES (:name, :lastExternalCommentId, NOW())
+            ON CONFLICT (name)
+            DO UPDATE SET
+                last_external_comment_id = EXCLUDED.last_external_comment_id,
+                updated_at = NOW()
+            """)
+    Mono<Integer> saveCheckpoint(String name, Long lastExternalCommentId);
+}
@@ -0,0 +1,53 @@
+package lab.rxspring.springbootwebclient.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import reactor.core.publisher.Mono;
+
+// Assigns each inbound request a correlation id (the caller's X-Request-ID when usable) and a log sampling decision,
+// and makes both available to the rest of the chain through the Reactor context
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter implements WebFilter {
+
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    private final double sampleRate;
+
+    public CorrelationIdFilter(CommentProperties properties) {
+        this.sampleRate = properties.getLogging().getSampleRate();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String incoming = exchange.getRequest().getHeaders().getFirst(RequestContext.HEADER);
+        String requestId = isUsable(incoming) ? incoming : RequestContext.newRequestId();
+        boolean sampled = sampleRate >= 1d || ThreadLocalRandom.current().nextDouble() < sampleRate;
+        exchange.getResponse().getHeaders().set(RequestContext.HEADER, requestId);  // Echo so callers can quote it
+        RequestContext requestContext = new RequestContext(requestId, sampled);
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(RequestContext.KEY, requestContext));
+    }
+
+    // Accept short ids made of safe characters only, so a caller cannot inject text into log lines
+    private static boolean isUsable(String requestId) {
+        if (requestId == null || requestId.isEmpty() || requestId.length() > MAX_REQUEST_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < requestId.length(); i++) {
+            char c = requestId.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package lab.rxspring.springbootwebclient.logging;
+
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+
+import reactor.util.context.ContextView;
+
+// Correlation id and log sampling decision of one inbound request, carried in the Reactor context
+public record RequestContext(String requestId, boolean sampled) {
+
+    public static final String HEADER = "X-Request-ID";
+    static final Class<RequestContext> KEY = RequestContext.class;
+    static final String MDC_KEY = "requestId";
+
+    // The current request's context, or null outside a request (e.g. background refresh)
+    public static RequestContext current(ContextView context) {
+        return context.getOrDefault(KEY, null);
+    }
+
+    // 16 hex chars from ThreadLocalRandom; cheaper than UUID.randomUUID(), which draws from SecureRandom
+    public static String newRequestId() {
+        return HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+    }
+}
@@ -0,0 +1,53 @@
+package lab.rxspring.springbootwebclient.logging;
+
+import java.util.function.Consumer;
+
+import org.slf4j.MDC;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.util.context.ContextView;
+
+// Hot-path diagnostic logging that honours the per-request sampling decision; warnings and errors are logged directly.
+// Sampled lines run with the request id in the MDC, so the log pattern can show it.
+public final class RequestLog {
+
+    private RequestLog() {
+    }
+
+    // For doOnEach: runs action for each value of a sampled request
+    public static <T> Consumer<Signal<T>> onNext(Consumer<T> action) {
+        return signal -> {
+            if (signal.isOnNext() && isSampled(signal.getContextView())) {
+                withMdc(signal.getContextView(), () -> action.accept(signal.get()));
+            }
+        };
+    }
+
+    // Completes empty after running action, if the subscribing request is sampled
+    public static Mono<Void> whenSampled(Runnable action) {
+        return Mono.deferContextual(context -> {
+            if (isSampled(context)) {
+                withMdc(context, action);
+            }
+            return Mono.empty();
+        });
+    }
+
+    // Work outside an inbound request has no sampling decision and is always logged
+    public static boolean isSampled(ContextView context) {
+        RequestContext requestContext = RequestContext.current(context);
+        return requestContext == null || requestContext.sampled();
+    }
+
+    private static void withMdc(ContextView context, Runnable action) {
+        RequestContext requestContext = RequestContext.current(context);
+        if (requestContext == null) {
+            action.run();
+            return;
+        }
+        try (MDC.MDCCloseable ignored = MDC.putCloseable(RequestContext.MDC_KEY, requestContext.requestId())) {
+            action.run();
+        }
+    }
+}
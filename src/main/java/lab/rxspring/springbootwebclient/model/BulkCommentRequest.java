@@ -0,0 +1,13 @@
+package lab.rxspring.springbootwebclient.model;
+
+import java.util.List;
+
+import lombok.Data;
+
+// Bulk ingestion request: either an explicit id list or an inclusive [fromId, toId] range
+@Data
+public class BulkCommentRequest {
+    private List<String> ids;
+    private Long fromId;
+    private Long toId;
+}
@@ -0,0 +1,22 @@
+package lab.rxspring.springbootwebclient.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Summary of a bulk ingestion request, with per-id results and throughput for comparison against the single-id path
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+public class BulkCommentResponse {
+    private int requested;
+    private int succeeded;
+    private int failed;
+    private long elapsedMillis;
+    private double commentsPerSecond;
+    private List<BulkCommentResult> results;
+}
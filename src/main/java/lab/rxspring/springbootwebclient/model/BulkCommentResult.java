@@ -0,0 +1,26 @@
+package lab.rxspring.springbootwebclient.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of a single id within a bulk ingestion request
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+public class BulkCommentResult {
+
+    public enum Status {
+        SAVED,
+        FETCH_FAILED,
+        SAVE_FAILED
+    }
+
+    private String id;
+    private Status status;
+    private Long commentId;
+    private WriteOutcome writeOutcome;
+    private String message;
+}
@@ -3,13 +3,15 @@ package lab.rxspring.springbootwebclient.model;
 import java.sql.Timestamp;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.relational.core.mapping.Table;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import tools.jackson.databind.ObjectMapper;
 
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,8 +20,6 @@ import tools.jackson.databind.ObjectMapper;
 @Table(name = "comments")
 public class Comment {
 
-    private static final ObjectMapper MAPPER = new ObjectMapper();
-
     @Id
     private Long id;
     private Long externalCommentId;
@@ -27,16 +27,24 @@ public class Comment {
     private String name;
     private String email;
     private String body;
+    private String etag;  // Upstream ETag, sent back as If-None-Match
+    private String lastModified;  // Upstream Last-Modified, sent back as If-Modified-Since
     private Timestamp createdAt;
     private Timestamp updatedAt;
+    private Timestamp syncedAt;  // Last time the row was confirmed against upstream, maintained by the upsert and refresh queries
+    @ReadOnlyProperty
+    @JsonIgnore
+    private WriteOutcome writeOutcome;  // Only populated by the upsert queries; internal, never part of a response
+    @ReadOnlyProperty
+    @JsonIgnore
+    private Boolean fresh;  // Only populated by CommentDao.findWithFreshness
 
     @Override
     public String toString() {
         try {
-            return MAPPER.writeValueAsString(this);
+            return ModelJson.MAPPER.writeValueAsString(this);
         } catch (Exception e) {
             return "Comment{errorSerializing=true}";
         }
     }
-
 }
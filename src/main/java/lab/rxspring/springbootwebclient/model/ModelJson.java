@@ -0,0 +1,13 @@
+package lab.rxspring.springbootwebclient.model;
+
+import tools.jackson.databind.ObjectMapper;
+
+// Mapper behind the entities' JSON toString. Kept out of the entity classes so Spring Data's AOT scan of their
+// fields and nested types does not walk into Jackson internals; as a holder it is also built on first use only.
+final class ModelJson {
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ModelJson() {
+    }
+}
@@ -0,0 +1,26 @@
+package lab.rxspring.springbootwebclient.model;
+
+import java.sql.Timestamp;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Persisted resume point of a background job, so a restart continues where the previous run stopped
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+@Table(name = "sync_checkpoints")
+public class SyncCheckpoint {
+
+    @Id
+    private String name;
+    private Long lastExternalCommentId;  // Last external ID processed; the next scan starts after it
+    private Timestamp updatedAt;
+
+}
@@ -0,0 +1,8 @@
+package lab.rxspring.springbootwebclient.model;
+
+// What an upsert did to the comments row
+public enum WriteOutcome {
+    INSERTED,
+    UPDATED,
+    UNCHANGED  // Payload identical to the stored row (or upstream answered 304), nothing rewritten
+}
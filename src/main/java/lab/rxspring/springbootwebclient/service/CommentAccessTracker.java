@@ -0,0 +1,50 @@
+package lab.rxspring.springbootwebclient.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+
+// Approximate read frequency per external comment id, used to refresh the most requested comments first
+@Component
+public class CommentAccessTracker {
+
+    private final Cache<Long, AtomicLong> counts;
+
+    public CommentAccessTracker(CommentProperties properties) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(properties.getRefresh().getTrackedIds())  // Caffeine's frequency-aware eviction keeps the popular ids
+                .build();
+    }
+
+    public void recordAccess(String id) {
+        long externalCommentId = NumberUtils.toLong(id, -1L);
+        if (externalCommentId >= 0) {
+            counts.get(externalCommentId, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    // Most read ids, highest count first; every count is then halved so the ranking follows recent traffic
+    public List<Long> hottest(int limit) {
+        List<Long> hottest = counts.asMap().entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().get()))  // Snapshot counts so the sort sees stable values
+                .sorted(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+        counts.asMap().forEach((key, count) -> {
+            if (count.updateAndGet(value -> value / 2) == 0) {
+                counts.asMap().remove(key, count);
+            }
+        });
+        return hottest;
+    }
+}
@@ -0,0 +1,83 @@
+package lab.rxspring.springbootwebclient.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import lab.rxspring.springbootwebclient.model.Comment;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+// Bounded read-through cache for external comment lookups; concurrent misses for one id share a single in-flight load
+@Slf4j
+@Component
+public class CommentCache {
+
+    private final AsyncCache<String, Comment> cache;
+    private final boolean enabled;
+    private final LongAdder coalesced = new LongAdder();  // Lookups that joined a load already in flight
+
+    public CommentCache(CommentProperties properties, MeterRegistry meterRegistry) {
+        CommentProperties.Cache config = properties.getCache();
+        this.enabled = config.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())  // Size-based eviction
+                .expireAfterWrite(config.getTtl())  // At most one upstream call per id per TTL window
+                .recordStats()
+                .buildAsync();
+        registerMetrics(meterRegistry);
+    }
+
+    // Returns the cached comment for id, or runs loader once and shares its result with every concurrent caller
+    public Mono<Comment> get(String id, Function<String, Mono<Comment>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return Mono.deferContextual(context -> {
+            AtomicBoolean loadedHere = new AtomicBoolean();
+            CompletableFuture<Comment> future = cache.get(id, (key, executor) -> {  // Empty or failed loads are removed by Caffeine
+                loadedHere.set(true);
+                return loader.apply(key).contextWrite(context).toFuture();  // The loading request's correlation id and sampling apply
+            });
+            if (!loadedHere.get() && !future.isDone()) {
+                coalesced.increment();
+                log.debug("CommentCache: coalesced lookup for commentId: {}", id);
+            }
+            return Mono.fromFuture(future, true);  // Suppress cancel so one caller going away does not cancel the shared load
+        });
+    }
+
+    // Replaces the cached entry with a freshly loaded comment, e.g. after a background refresh
+    public void put(String id, Comment comment) {
+        if (enabled) {
+            cache.put(id, CompletableFuture.completedFuture(comment));
+        }
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry) {
+        // Caffeine counts a lookup that joins an in-flight load as a hit, so coalesced lookups are split out here
+        FunctionCounter.builder("comments.cache.requests", this, c -> c.cache.synchronous().stats().hitCount() - c.coalesced.sum())
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("comments.cache.requests", this, c -> c.cache.synchronous().stats().missCount())
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("comments.cache.requests", this, c -> c.coalesced.sum())
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        FunctionCounter.builder("comments.cache.evictions", this, c -> c.cache.synchronous().stats().evictionCount())
+                .register(meterRegistry);
+        Gauge.builder("comments.cache.size", this, c -> c.cache.synchronous().estimatedSize())
+                .register(meterRegistry);
+    }
+}
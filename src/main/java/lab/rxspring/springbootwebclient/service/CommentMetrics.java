@@ -0,0 +1,69 @@
+package lab.rxspring.springbootwebclient.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+// Per-stage latency histograms and outcome counters for the comment pipeline
+@Component
+public class CommentMetrics {
+
+    public static final String STAGE_TOTAL = "total";  // Whole getExternalCommentById chain on a cache miss
+    public static final String STAGE_LOOKUP = "lookup";  // Stored-row lookup for conditional GET validators
+    public static final String STAGE_FETCH = "fetch";  // Upstream GET including retries and backoff
+    public static final String STAGE_ATTEMPT = "attempt";  // One upstream HTTP attempt
+    public static final String STAGE_MAP = "map";  // DTO to entity mapping
+    public static final String STAGE_UPSERT = "upsert";  // Postgres upsert round trip
+    public static final String STAGE_READ = "read";  // Database-first read, including any upstream fallback
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> outcomes = new ConcurrentHashMap<>();
+
+    public CommentMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Times one subscription of source, tagged by stage and by how it terminated (success, empty, error, cancelled)
+    public <T> Mono<T> timeStage(String stage, Mono<T> source) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            AtomicBoolean emitted = new AtomicBoolean();
+            return source
+                    .doOnNext(value -> emitted.set(true))
+                    .doFinally(signal -> sample.stop(timer(stage, result(signal, emitted.get()))));
+        });
+    }
+
+    // Counts which branch of the pipeline a request ended in (e.g. client_error, timeout, db_access_error)
+    public void recordOutcome(String outcome) {
+        outcomes.computeIfAbsent(outcome, key -> Counter.builder("comments.pipeline.outcome")
+                        .tag("outcome", key)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private Timer timer(String stage, String result) {
+        return timers.computeIfAbsent(stage + ':' + result, key -> Timer.builder("comments.pipeline.stage")
+                .tag("stage", stage)
+                .tag("result", result)
+                .publishPercentileHistogram()  // Buckets for server-side p50/p95/p99 in Prometheus
+                .register(meterRegistry));
+    }
+
+    private static String result(SignalType signal, boolean emitted) {
+        return switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> emitted ? "success" : "empty";
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package lab.rxspring.springbootwebclient.service;
+
+import java.util.Optional;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import lab.rxspring.springbootwebclient.dao.CommentDao;
+import lab.rxspring.springbootwebclient.model.Comment;
+import lab.rxspring.springbootwebclient.model.WriteOutcome;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Database-first reads: stored rows are served while fresh, otherwise the upstream is consulted through CommentService
+@Slf4j
+@Service
+public class CommentQueryService {
+
+    private final CommentDao commentDao;
+    private final CommentService commentService;
+    private final CommentProperties.Read config;
+    private final CommentMetrics metrics;
+    private final CommentAccessTracker accessTracker;
+
+    public CommentQueryService(CommentDao commentDao, CommentService commentService, CommentProperties properties, CommentMetrics metrics,
+                               CommentAccessTracker accessTracker) {
+        this.commentDao = commentDao;
+        this.commentService = commentService;
+        this.config = properties.getRead();
+        this.metrics = metrics;
+        this.accessTracker = accessTracker;
+    }
+
+    // One indexed lookup when the stored row is fresh; a stale or missing row falls back to the upstream fetch path
+    public Mono<Comment> getComment(long externalCommentId) {
+        return metrics.timeStage(CommentMetrics.STAGE_READ, commentDao.findWithFreshness(externalCommentId, config.getMaxAge().toSeconds())
+                .onErrorResume(DataAccessException.class, ex -> {  // Database unavailable: treat as a miss and go upstream
+                    log.info("DataAccessException:getComment: {}, Exception: {}", externalCommentId, ExceptionUtils.getRootCauseMessage(ex));
+                    return Mono.empty();
+                })
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(stored -> {
+                    if (stored.isPresent() && Boolean.TRUE.equals(stored.get().getFresh())) {  // Computed with the database clock
+                        metrics.recordOutcome("read_fresh");
+                        accessTracker.recordAccess(Long.toString(externalCommentId));  // The upstream path records its own reads
+                        return Mono.just(stored.get());
+                    }
+                    metrics.recordOutcome(stored.isPresent() ? "read_stale" : "read_miss");
+                    Mono<Comment> upstream = commentService.getExternalCommentById(Long.toString(externalCommentId))
+                            .flatMap(comment -> comment.getWriteOutcome() == WriteOutcome.UNCHANGED
+                                    ? markSynced(externalCommentId).thenReturn(comment)
+                                    : Mono.just(comment));
+                    if (stored.isEmpty() || !config.isServeStaleOnError()) {
+                        return upstream;
+                    }
+                    return upstream
+                            .onErrorResume(err -> Mono.empty())  // Already logged by the fetch path
+                            .switchIfEmpty(Mono.fromSupplier(() -> {  // Upstream unavailable: a stale row beats no row
+                                metrics.recordOutcome("read_stale_served");
+                                return stored.get();
+                            }));
+                }));
+    }
+
+    // Streams one page of a post's stored comments; pass the last externalCommentId of a page as 'after' to get the next
+    public Flux<Comment> getCommentsByPost(long postId, long afterExternalCommentId, Integer limit) {
+        int pageSize = limit == null ? config.getDefaultPageSize() : limit;
+        if (pageSize < 1 || pageSize > config.getMaxPageSize()) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + config.getMaxPageSize()));
+        }
+        return commentDao.findByPostIdAfter(postId, afterExternalCommentId, pageSize);
+    }
+
+    // A 304 or an unchanged payload leaves the row as is, including synced_at; confirm it so the next reads are served
+    // from the database again for maxAge instead of going upstream every time
+    private Mono<Void> markSynced(long externalCommentId) {
+        return commentDao.markSynced(new Long[]{externalCommentId})
+                .onErrorResume(DataAccessException.class, ex -> {  // The comment is still served; the row just stays stale
+                    log.info("DataAccessException:markSynced: {}, Exception: {}", externalCommentId, ExceptionUtils.getRootCauseMessage(ex));
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
@@ -0,0 +1,153 @@
+package lab.rxspring.springbootwebclient.service;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import lab.rxspring.springbootwebclient.dao.CommentDao;
+import lab.rxspring.springbootwebclient.dao.SyncCheckpointDao;
+import lab.rxspring.springbootwebclient.model.Comment;
+import lab.rxspring.springbootwebclient.model.SyncCheckpoint;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Background revalidation of stale comments so reads can be served from the database.
+// Each cycle first refreshes the most read stale ids, then continues a keyset scan over all stale rows from the
+// persisted checkpoint, wrapping around once the end of the table is reached.
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "comments.refresh", name = "enabled", havingValue = "true")
+public class CommentRefresher {
+
+    private final CommentService commentService;
+    private final CommentDao commentDao;
+    private final SyncCheckpointDao checkpointDao;
+    private final CommentAccessTracker accessTracker;
+    private final CommentProperties.Refresh config;
+    private final Counter refreshed;
+    private final Counter failed;
+    private final Timer cycleTimer;
+    private Disposable schedule;
+
+    public CommentRefresher(CommentService commentService, CommentDao commentDao, SyncCheckpointDao checkpointDao,
+                            CommentAccessTracker accessTracker, CommentProperties properties, MeterRegistry meterRegistry) {
+        this.commentService = commentService;
+        this.commentDao = commentDao;
+        this.checkpointDao = checkpointDao;
+        this.accessTracker = accessTracker;
+        this.config = properties.getRefresh();
+        this.refreshed = Counter.builder("comments.refresh.comments").tag("result", "refreshed").register(meterRegistry);
+        this.failed = Counter.builder("comments.refresh.comments").tag("result", "failed").register(meterRegistry);
+        this.cycleTimer = Timer.builder("comments.refresh.cycle").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        schedule = Flux.interval(config.getInitialDelay(), config.getInterval())
+                .onBackpressureDrop(tick -> log.info("CommentRefresher: previous cycle still running, skipping tick {}", tick))
+                .concatMap(tick -> runCycle()
+                        .onErrorResume(err -> {  // A failed cycle (e.g. database down) must not end the schedule
+                            log.warn("CommentRefresher: cycle failed, error: {}", ExceptionUtils.getRootCauseMessage(err));
+                            return Mono.empty();
+                        }), 0)  // No prefetch: a tick arriving mid-cycle finds no demand and is dropped above
+                .subscribe();
+        log.info("CommentRefresher: started, interval: {}, staleAfter: {}, batchSize: {}, ratePerSecond: {}",
+                config.getInterval(), config.getStaleAfter(), config.getBatchSize(), config.getRatePerSecond());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    // One cycle: hot stale ids first, then the checkpointed scan with the remaining budget
+    Mono<Void> runCycle() {
+        long staleAfterSeconds = config.getStaleAfter().toSeconds();
+        return Mono.defer(() -> {
+                    long startNanos = System.nanoTime();
+                    return refreshHot(staleAfterSeconds)
+                            .flatMap(hotCount -> refreshFromCheckpoint(staleAfterSeconds, config.getBatchSize() - hotCount)
+                                    .map(scanCount -> hotCount + scanCount))
+                            .doOnNext(count -> {
+                                cycleTimer.record(Duration.ofNanos(System.nanoTime() - startNanos));
+                                if (count > 0) {
+                                    log.info("CommentRefresher: cycle refreshed {} comments", count);
+                                }
+                            });
+                })
+                .then();
+    }
+
+    // Refreshes the stale subset of the most read ids, in order of read frequency; emits how many were attempted
+    private Mono<Integer> refreshHot(long staleAfterSeconds) {
+        List<Long> hottest = accessTracker.hottest(Math.min(config.getHotIds(), config.getBatchSize()));
+        if (hottest.isEmpty()) {
+            return Mono.just(0);
+        }
+        return commentDao.findStaleAmong(hottest.toArray(Long[]::new), staleAfterSeconds)
+                .map(Comment::getExternalCommentId)
+                .collect(HashSet<Long>::new, Set::add)
+                .flatMap(stale -> {
+                    List<Long> ids = hottest.stream().filter(stale::contains).toList();  // Keep the frequency order
+                    return refresh(ids).thenReturn(ids.size());
+                });
+    }
+
+    // Refreshes up to limit stale rows after the checkpoint and advances it; emits how many were attempted
+    private Mono<Integer> refreshFromCheckpoint(long staleAfterSeconds, int limit) {
+        if (limit <= 0) {
+            return Mono.just(0);
+        }
+        return checkpointDao.findById(config.getCheckpointName())
+                .map(SyncCheckpoint::getLastExternalCommentId)
+                .defaultIfEmpty(0L)
+                .flatMap(after -> commentDao.findStaleAfter(after, staleAfterSeconds, limit)
+                        .map(Comment::getExternalCommentId)
+                        .collectList()
+                        .flatMap(ids -> {
+                            boolean endOfTable = ids.size() < limit;  // Next cycle starts a new pass from the beginning
+                            long next = endOfTable ? 0L : ids.getLast();
+                            Mono<Integer> save = next == after
+                                    ? Mono.just(0)
+                                    : checkpointDao.saveCheckpoint(config.getCheckpointName(), next);
+                            return refresh(ids).then(save).thenReturn(ids.size());
+                        }));
+    }
+
+    // Refetches ids through the normal fetch path, rate limited and with bounded concurrency,
+    // then marks every successfully revalidated row as synced (including unchanged and 304 responses)
+    private Mono<Void> refresh(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        Duration spacing = Duration.ofNanos((long) (1_000_000_000d / config.getRatePerSecond()));
+        return Flux.fromIterable(ids)
+                .delayElements(spacing)  // At most ratePerSecond fetches started per second
+                .flatMap(id -> commentService.refreshExternalComment(String.valueOf(id))
+                        .map(Comment::getExternalCommentId)
+                        .onErrorResume(err -> Mono.empty()), config.getConcurrency())  // Already logged by the fetch path; the row stays stale
+                .collectList()
+                .flatMap(done -> {
+                    refreshed.increment(done.size());
+                    failed.increment(ids.size() - done.size());
+                    return done.isEmpty() ? Mono.empty() : commentDao.markSynced(done.toArray(Long[]::new));
+                })
+                .then();
+    }
+}
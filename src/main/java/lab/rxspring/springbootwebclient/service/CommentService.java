@@ -3,24 +3,55 @@ package lab.rxspring.springbootwebclient.service;
 import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.LongStream;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.jspecify.annotations.NonNull;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
 
-import io.netty.handler.timeout.TimeoutException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lab.rxspring.springbootwebclient.client.AttemptBudget;
+import lab.rxspring.springbootwebclient.client.RateLimitExceededException;
+import lab.rxspring.springbootwebclient.client.RequestHedger;
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import lab.rxspring.springbootwebclient.config.ResilienceConfig;
 import lab.rxspring.springbootwebclient.dao.CommentDao;
+import lab.rxspring.springbootwebclient.logging.RequestLog;
+import lab.rxspring.springbootwebclient.model.BulkCommentRequest;
+import lab.rxspring.springbootwebclient.model.BulkCommentResponse;
+import lab.rxspring.springbootwebclient.model.BulkCommentResult;
 import lab.rxspring.springbootwebclient.model.Comment;
 import lab.rxspring.springbootwebclient.model.CommentDto;
+import lab.rxspring.springbootwebclient.model.WriteOutcome;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 import reactor.util.retry.RetryBackoffSpec;
@@ -31,29 +62,156 @@ public class CommentService {
 
     private final CommentDao commentDao;
     private final WebClient webClient;
+    private final CommentProperties properties;
+    private final CommentCache commentCache;
+    private final CircuitBreaker circuitBreaker;
+    private final AttemptBudget retryBudget;
+    private final RequestHedger hedger;
+    private final Counter retriesAttempted;
+    private final Counter retriesRejected;
+    private final CommentMetrics metrics;
+    private final CommentWriteBuffer writeBuffer;
+    private final CommentAccessTracker accessTracker;
 
-    public CommentService(CommentDao commentDao, WebClient webClient) {
+    public CommentService(CommentDao commentDao, WebClient webClient, CommentProperties properties, CommentCache commentCache,
+                          CircuitBreaker commentCircuitBreaker, AttemptBudget retryBudget, RequestHedger hedger, MeterRegistry meterRegistry,
+                          CommentMetrics metrics, CommentWriteBuffer writeBuffer, CommentAccessTracker accessTracker) {
         this.commentDao = commentDao;
         this.webClient = webClient;
+        this.properties = properties;
+        this.commentCache = commentCache;
+        this.circuitBreaker = commentCircuitBreaker;
+        this.retryBudget = retryBudget;
+        this.hedger = hedger;
+        this.retriesAttempted = Counter.builder("comments.upstream.retries").tag("result", "attempted").register(meterRegistry);
+        this.retriesRejected = Counter.builder("comments.upstream.retries").tag("result", "rejected_by_budget").register(meterRegistry);
+        this.metrics = metrics;
+        this.writeBuffer = writeBuffer;
+        this.accessTracker = accessTracker;
     }
 
-    // Fetches external comment by ID, maps to entity, saves to database
+    // Returns external comment by ID through the read-through cache
     public Mono<Comment> getExternalCommentById(String id) {
-        return getCommentById(id)  // Fetch comment from external API
-                .flatMap(this::mapToComment)  // Transform DTO to entity
-                .flatMap(data -> saveOrUpdateCommentData(id, data))  // Persist to database
-                .flatMap(Mono::just)  // Wrap result in Mono (redundant, can be removed)
+        accessTracker.recordAccess(id);  // Read frequency decides which stale comments are refreshed first
+        return commentCache.get(id, this::fetchAndSaveComment);  // Concurrent misses for the same id share one fetch and upsert
+    }
+
+    // Revalidates one comment against upstream off the request path and replaces its cached copy
+    public Mono<Comment> refreshExternalComment(String id) {
+        return fetchAndSaveComment(id)
+                .doOnNext(comment -> commentCache.put(id, comment));
+    }
+
+    // Fetches external comment by ID, maps to entity, saves to database; unchanged upstream payloads reuse the stored row
+    private Mono<Comment> fetchAndSaveComment(String id) {
+        return metrics.timeStage(CommentMetrics.STAGE_TOTAL, findStoredComment(id)  // Load the stored row so its validators can be sent upstream
+                .flatMap(stored -> getCommentById(id, stored.orElse(null))  // Conditional fetch from external API
+                        .flatMap(response -> {
+                            if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && stored.isPresent()) {  // 304: skip decode, mapping and upsert
+                                metrics.recordOutcome("not_modified");
+                                Comment comment = stored.get();
+                                comment.setWriteOutcome(WriteOutcome.UNCHANGED);
+                                return Mono.just(comment)
+                                        .doOnEach(RequestLog.onNext(unchanged -> log.atInfo()
+                                                .addKeyValue("commentId", id)
+                                                .log("getExternalCommentById: not modified, returning stored comment")));
+                            }
+                            return toComment(response)  // Transform DTO to entity
+                                    .flatMap(data -> saveOrUpdateCommentData(id, data));  // Persist to database
+                        }))
                 .onErrorResume(err -> {  // Handle any errors from the entire chain
                     log.info("Exception:getExternalCommentById: {}, Exception: {}", id, ExceptionUtils.getRootCauseMessage(err));
                     return Mono.error(new RuntimeException("Error:Failed to save comment to database", err));
+                }));
+    }
+
+    // Streams comments for many ids, emitting each as soon as its fetch and upsert complete
+    public Flux<Comment> streamExternalComments(List<String> ids) {
+        CommentProperties.Streaming streaming = properties.getStreaming();
+        if (ids.size() > streaming.getMaxIds()) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Streaming request exceeds " + streaming.getMaxIds() + " ids"));
+        }
+        return Flux.fromIterable(ids)
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .distinct()
+                // Completed items stay queued until the client requests them, so a slow consumer stops new fetches
+                // once 'concurrency' results are pending instead of buffering the whole response in memory
+                .flatMap(id -> getExternalCommentById(id)
+                        .onErrorResume(err -> {  // One failing id must not terminate the stream
+                            log.info("Exception:streamExternalComments: {}, Exception: {}", id, ExceptionUtils.getRootCauseMessage(err));
+                            return Mono.empty();
+                        }), streaming.getConcurrency(), 1);
+    }
+
+    // Fetches many external comments with bounded concurrency and persists them with multi-row upserts
+    public Mono<BulkCommentResponse> ingestExternalComments(BulkCommentRequest request) {
+        CommentProperties.Bulk bulk = properties.getBulk();
+        return Mono.fromCallable(() -> resolveBulkIds(request, bulk.getMaxIds()))  // Validate and expand the requested ids
+                .flatMap(ids -> {
+                    long startNanos = System.nanoTime();
+                    Queue<BulkCommentResult> fetchFailures = new ConcurrentLinkedQueue<>();  // Ids whose upstream fetch produced nothing
+                    return Flux.fromIterable(ids)
+                            .flatMap(id -> getCommentById(id, null)  // Fetch from external API, at most 'concurrency' in flight
+                                    .flatMap(this::toComment)  // Transform DTO to entity
+                                    .map(comment -> Map.entry(id, comment))
+                                    .switchIfEmpty(Mono.fromRunnable(() -> fetchFailures.add(BulkCommentResult.builder()
+                                            .id(id)
+                                            .status(BulkCommentResult.Status.FETCH_FAILED)
+                                            .message("No comment returned by external API")
+                                            .build()))), bulk.getConcurrency())
+                            .buffer(bulk.getBatchSize())  // Group fetched entities into upsert chunks
+                            .concatMap(this::saveCommentBatch)  // One multi-row upsert per chunk
+                            .concatWith(Flux.defer(() -> Flux.fromIterable(fetchFailures)))  // Append fetch failures once all fetches are done
+                            .collectList()
+                            .map(results -> toBulkResponse(ids.size(), results, System.nanoTime() - startNanos));
+                })
+                .doOnSuccess(response -> log.info("ingestExternalComments: requested: {}, succeeded: {}, failed: {}, elapsedMillis: {}, commentsPerSecond: {}",
+                        response.getRequested(), response.getSucceeded(), response.getFailed(), response.getElapsedMillis(), response.getCommentsPerSecond()));
+    }
+
+    // Streams the upstream collection (optionally for one post) and upserts it while it downloads.
+    // Elements are decoded one at a time; the batch being upserted, one queued batch and the one bufferTimeout is filling
+    // bound memory to a few batches, so heap use does not grow with the collection.
+    public Flux<BulkCommentResult> syncExternalCollection(Long postId) {
+        CommentProperties.Collection collection = properties.getCollection();
+        return webClient.get()  // Initiate HTTP GET request for the collection resource
+                .uri(uriBuilder -> uriBuilder.queryParamIfPresent("postId", Optional.ofNullable(postId)).build())
+                .accept(MediaType.APPLICATION_JSON)  // Set Accept header to JSON
+                .retrieve()  // Execute request and retrieve response
+                .bodyToFlux(CommentDto.class)  // Non-blocking Jackson tokenizer emits each array element as soon as it is complete
+                .concatMap(this::mapToComment)  // Transform DTO to entity
+                .map(comment -> Map.entry(String.valueOf(comment.getExternalCommentId()), comment))
+                .bufferTimeout(collection.getBatchSize(), collection.getMaxWait(), true)  // Full batches, or a partial one if the download stalls
+                .concatMap(this::saveCommentBatch, 1)  // One upsert at a time with one batch queued; then demand and socket reads pause
+                .doOnComplete(() -> log.info("syncExternalCollection: postId: {} completed", postId))
+                .doOnError(err -> {  // Rows already upserted stay; the caller sees the stream end with an error
+                    log.info("Exception:syncExternalCollection: postId: {}, Exception: {}", postId, ExceptionUtils.getRootCauseMessage(err));
+                    metrics.recordOutcome("collection_error");
                 });
     }
 
-    // Fetches comment from external API with retry and timeout handling
-    private Mono<CommentDto> getCommentById(String id) {
+    // Looks up the stored row for an external ID; lookup failures only cost the conditional request
+    private Mono<Optional<Comment>> findStoredComment(String id) {
+        long externalCommentId = NumberUtils.toLong(id, -1L);
+        if (externalCommentId < 0) {  // Not a stored id, let the external API reject it
+            return Mono.just(Optional.empty());
+        }
+        return metrics.timeStage(CommentMetrics.STAGE_LOOKUP, commentDao.findByExternalCommentId(externalCommentId))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(DataAccessException.class, ex -> {
+                    log.info("DataAccessException:findStoredComment: {}, Exception: {}", id, ExceptionUtils.getRootCauseMessage(ex));
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    // Fetches comment from external API with retry and timeout handling; a stored comment's validators make the request conditional
+    private Mono<ResponseEntity<CommentDto>> getCommentById(String id, Comment stored) {
         return webClient.get()  // Initiate HTTP GET request
                 .uri("/{id}", id)  // Set URI with path variable
                 .accept(MediaType.APPLICATION_JSON)  // Set Accept header to JSON
+                .headers(headers -> applyValidators(headers, stored))  // Send If-None-Match / If-Modified-Since when known
                 .retrieve()  // Execute request and retrieve response
                 /*.onRawStatus(code -> code > 399, response -> {  // Alternative raw status code handling (commented)
                     log.info("onRawStatus:getCommentById: {}, response: {}", id, response.statusCode());
@@ -61,33 +219,75 @@ public class CommentService {
                 })*/
                 .onStatus(HttpStatusCode::is4xxClientError, clientResponse -> handle4xxClientError(clientResponse, id))  // Handle 4xx client errors
                 .onStatus(HttpStatusCode::is5xxServerError, clientResponse -> handle5xxClientError(clientResponse, id))  // Handle 5xx server errors
-                .bodyToMono(CommentDto.class)  // Deserialize response body to CommentDto
-                .doOnNext(comment -> {  // Log successful retrieval
-                    log.info("getCommentById: {}, comment: {}", id, comment);
+                .toEntity(CommentDto.class)  // Deserialize response body to CommentDto, keeping status and headers (304 has no body)
+                .doOnEach(RequestLog.onNext(response -> log.atInfo()  // Log successful retrieval; fields are rendered by the appender
+                        .addKeyValue("commentId", id)
+                        .addKeyValue("status", response.getStatusCode().value())
+                        .log("getCommentById: response received")))
+                .timeout(properties.getResilience().getTimeout())  // Per-attempt timeout
+                .transform(attempt -> metrics.timeStage(CommentMetrics.STAGE_ATTEMPT, attempt))  // Latency of each individual attempt
+                .transform(hedger::hedge)  // Optionally race a second attempt on another connection when this one is slow
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))  // Every attempt is recorded by, and gated on, the breaker
+                .retryWhen(retryBudget.limit(getRetryBackoffSpec(id), () -> onRetryRejected(id)))  // Jittered backoff, each retry paid from the budget
+                .transform(fetch -> metrics.timeStage(CommentMetrics.STAGE_FETCH, fetch))  // Latency including retries and backoff
+                .doOnSubscribe(subscription -> retryBudget.recordRequest())  // One budget deposit per logical request
+                .onErrorResume(CallNotPermittedException.class, e -> {  // Breaker open: shed the call without touching upstream
+                    log.info("CallNotPermittedException: getCommentById: {}, circuit breaker: {}", id, circuitBreaker.getState());
+                    metrics.recordOutcome("circuit_open");
+                    return Mono.empty();
                 })
-                .timeout(Duration.ofSeconds(3))  // Set 3-second timeout for the request
-                .retryWhen(getRetryBackoffSpec(id))  // Apply exponential backoff retry strategy
-                .flatMap(Mono::just)  // Wrap in Mono (redundant, can be removed)
                 .onErrorResume(WebClientResponseException.class, e -> {  // Handle HTTP response errors (4xx, 5xx)
                     log.info("WebClientResponseException: getCommentById: {}, Exception: {}", id, ExceptionUtils.getRootCauseMessage(e));
+                    metrics.recordOutcome(e.getStatusCode().is4xxClientError() ? "client_error" : "server_error");
                     return Mono.empty();
                 })
                 .onErrorResume(WebClientRequestException.class, e -> {  // Handle connection/request errors (DNS, connection refused)
                     log.info("WebClientRequestException: getCommentById: {}, Exception: {}", id, ExceptionUtils.getRootCauseMessage(e));
+                    metrics.recordOutcome("request_error");
+                    return Mono.empty();
+                })
+                .onErrorResume(RateLimitExceededException.class, e -> {  // Outbound limiter queue full: shed without calling upstream
+                    log.info("RateLimitExceededException: getCommentById: {}, Exception: {}", id, e.getMessage());
+                    metrics.recordOutcome("rate_limited");
                     return Mono.empty();
                 })
                 .onErrorResume(TimeoutException.class, e -> {  // Handle timeout errors after retry exhaustion
                     log.info("TimeoutException: getCommentById: {}, Exception: {}", id, ExceptionUtils.getRootCauseMessage(e));
+                    metrics.recordOutcome("timeout");
                     return Mono.empty();
                 })
                 .onErrorResume(throwable -> {  // Catch-all for any unexpected errors
                     log.info("Exception: getCommentById: {}, Exception: {}", id, ExceptionUtils.getRootCauseMessage(throwable));
+                    metrics.recordOutcome("fetch_error");
                     return Mono.empty();
                 });
     }
 
-    // Maps CommentDto from API to Comment entity for database persistence
-    private Mono<Comment> mapToComment(CommentDto data) {
+    // Sends the stored validators so the external API can answer 304 Not Modified
+    private static void applyValidators(HttpHeaders headers, Comment stored) {
+        if (stored == null) {
+            return;
+        }
+        if (stored.getEtag() != null) {
+            headers.setIfNoneMatch(stored.getEtag());
+        }
+        if (stored.getLastModified() != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, stored.getLastModified());
+        }
+    }
+
+    // Maps a full API response to a Comment entity, carrying the validators returned with it
+    private Mono<Comment> toComment(ResponseEntity<CommentDto> response) {
+        return Mono.justOrEmpty(response.getBody())
+                .flatMap(dto -> metrics.timeStage(CommentMetrics.STAGE_MAP, mapToComment(dto)))  // Transform DTO to entity
+                .doOnNext(comment -> {  // Keep validators for the next conditional fetch
+                    comment.setEtag(response.getHeaders().getETag());
+                    comment.setLastModified(response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED));
+                });
+    }
+
+    // Maps CommentDto from API to Comment entity for database persistence (package-private for the JMH benchmarks)
+    Mono<Comment> mapToComment(CommentDto data) {
         return Mono.just(Comment.builder()  // Build Comment entity using builder pattern
                         .name(data.getName())  // Map name field
                         .body(data.getBody())  // Map body field
@@ -105,33 +305,110 @@ public class CommentService {
 
     // Saves or updates comment data in database with duplicate key handling
     private @NonNull Mono<Comment> saveOrUpdateCommentData(String id, Comment data) {
-        return commentDao.upsert(data.getPostId(), data.getExternalCommentId(), data.getName(), data.getEmail(), data.getBody())  // Execute upsert operation
-                .doOnSuccess(comment -> {  // Log successful save operation
-                    log.info("Successfully saved comment {}", comment);
-                })
+        return metrics.timeStage(CommentMetrics.STAGE_UPSERT, writeBuffer.isEnabled()
+                        ? writeBuffer.write(data)  // Batched with concurrent writes, completes when its batch commits
+                        : commentDao.upsert(data))  // Execute upsert operation
+                .doOnSuccess(comment -> metrics.recordOutcome(comment == null || comment.getWriteOutcome() == null
+                        ? "saved" : comment.getWriteOutcome().name().toLowerCase()))  // inserted / updated / unchanged
+                .doOnEach(RequestLog.onNext(comment -> log.atInfo()  // Log successful save with a few fields instead of the whole entity as JSON
+                        .addKeyValue("commentId", id)
+                        .addKeyValue("rowId", comment.getId())
+                        .addKeyValue("outcome", comment.getWriteOutcome())
+                        .log("saveOrUpdateCommentData: comment saved")))
                 .onErrorResume(DuplicateKeyException.class, ex -> {  // Handle duplicate key constraint violations
                     log.error("DuplicateKeyException:getExternalCommentById: Database error saving comment for ID: {}, error: {}",
                             id, ex.getMessage(), ex);
+                    metrics.recordOutcome("db_duplicate_key");
                     return Mono.error(new RuntimeException("DuplicateKeyException:Failed to save comment to database", ex));
                 })
                 .onErrorResume(DataAccessException.class, ex -> {  // Handle general database access errors
                     log.error("DataAccessException:getExternalCommentById: Database error saving comment for ID: {}, error: {}",
                             id, ex.getMessage(), ex);
+                    metrics.recordOutcome("db_access_error");
                     return Mono.error(new RuntimeException("DataAccessException:Failed to save comment to database", ex));
                 })
                 .onErrorResume(throwable -> {  // Catch-all for any unexpected errors
                     log.error("{}:getExternalCommentById: Database error saving comment for ID: {}", throwable.getCause(), id);
+                    metrics.recordOutcome("db_error");
                     return Mono.error(new RuntimeException("Exception:Failed to save comment to database", throwable));
                 });
     }
 
 
-    // Configures exponential backoff retry strategy for API calls
+    // Persists one chunk of fetched comments with a single multi-row upsert and reports per-id results
+    private Flux<BulkCommentResult> saveCommentBatch(List<Map.Entry<String, Comment>> batch) {
+        Map<Long, Comment> uniqueComments = new LinkedHashMap<>();  // Different request ids ("1", "01") can resolve to the same comment
+        batch.forEach(entry -> uniqueComments.put(entry.getValue().getExternalCommentId(), entry.getValue()));
+        return commentDao.upsertBatch(List.copyOf(uniqueComments.values()))
+                .collectMap(Comment::getExternalCommentId)  // Index saved rows by external ID
+                .flatMapMany(saved -> Flux.fromIterable(batch)
+                        .map(entry -> {
+                            Comment comment = saved.get(entry.getValue().getExternalCommentId());
+                            return comment != null
+                                    ? BulkCommentResult.builder().id(entry.getKey()).status(BulkCommentResult.Status.SAVED).commentId(comment.getId()).writeOutcome(comment.getWriteOutcome()).build()
+                                    : BulkCommentResult.builder().id(entry.getKey()).status(BulkCommentResult.Status.SAVE_FAILED).message("Row not returned by upsert").build();
+                        }))
+                .onErrorResume(throwable -> {  // A failed statement fails every id in the chunk
+                    log.error("saveCommentBatch: Database error saving {} comments, error: {}", batch.size(), ExceptionUtils.getRootCauseMessage(throwable));
+                    return Flux.fromIterable(batch)
+                            .map(entry -> BulkCommentResult.builder()
+                                    .id(entry.getKey())
+                                    .status(BulkCommentResult.Status.SAVE_FAILED)
+                                    .message(ExceptionUtils.getRootCauseMessage(throwable))
+                                    .build());
+                });
+    }
+
+    // Expands a bulk request into a de-duplicated, ordered id list (package-private for tests)
+    static List<String> resolveBulkIds(BulkCommentRequest request, int maxIds) {
+        Set<String> ids = new LinkedHashSet<>();
+        if (request.getIds() != null) {
+            request.getIds().stream().filter(id -> id != null && !id.isBlank()).map(String::trim).forEach(ids::add);
+        }
+        if (request.getFromId() != null || request.getToId() != null) {
+            if (request.getFromId() == null || request.getToId() == null || request.getFromId() > request.getToId()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fromId and toId must both be set with fromId <= toId");
+            }
+            if (request.getFromId() < 1) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fromId and toId must be positive");
+            }
+            if (request.getFromId() < request.getToId() - (maxIds - 1)) {  // More than maxIds ids, checked without overflow
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Bulk request exceeds " + maxIds + " ids");
+            }
+            LongStream.rangeClosed(request.getFromId(), request.getToId()).mapToObj(Long::toString).forEach(ids::add);
+        }
+        if (ids.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Bulk request must contain ids or a fromId/toId range");
+        }
+        if (ids.size() > maxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Bulk request exceeds " + maxIds + " ids");
+        }
+        return new ArrayList<>(ids);
+    }
+
+    // Aggregates per-id results and computes throughput for the whole request
+    private static BulkCommentResponse toBulkResponse(int requested, List<BulkCommentResult> results, long elapsedNanos) {
+        int succeeded = (int) results.stream().filter(result -> result.getStatus() == BulkCommentResult.Status.SAVED).count();
+        long elapsedMillis = Duration.ofNanos(elapsedNanos).toMillis();
+        return BulkCommentResponse.builder()
+                .requested(requested)
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .elapsedMillis(elapsedMillis)
+                .commentsPerSecond(elapsedNanos > 0 ? requested * 1_000_000_000d / elapsedNanos : 0d)
+                .results(results)
+                .build();
+    }
+
+    // Configures jittered exponential backoff for API calls; this is the only retry layer on the outbound path
     private @NonNull RetryBackoffSpec getRetryBackoffSpec(String id) {
+        CommentProperties.Resilience.Retry retry = properties.getResilience().getRetry();
         return Retry
-                .backoff(3, Duration.ofMillis(500))  // Retry up to 3 times with 500ms initial delay
-                .maxBackoff(Duration.ofSeconds(2))  // Cap maximum delay at 2 seconds
-                .filter(throwable -> throwable instanceof WebClientRequestException || throwable instanceof WebClientResponseException || throwable instanceof TimeoutException)  // Only retry on specific transient errors
+                .backoff(retry.getMaxRetries(), retry.getMinBackoff())  // Bounded retries with exponential delay
+                .maxBackoff(retry.getMaxBackoff())  // Cap maximum delay
+                .jitter(retry.getJitter())  // Spread retries so failing callers do not retry in lockstep
+                .filter(ResilienceConfig::isUpstreamFailure)  // Only transient errors; the retry budget is applied around this spec
+                .doBeforeRetry(retrySignal -> retriesAttempted.increment())
                 .doBeforeRetry(retrySignal -> log.info("BeforeRetry:: commentId: {}, attempts: {}, retry failure cause: {}", id, retrySignal.totalRetries() + 1, retrySignal.failure().getMessage()))  // Log before each retry attempt
                 .doAfterRetry(retrySignal -> log.info("AfterRetry:commentId: {}, attempts: {}, retry failure cause: {}", id, retrySignal.totalRetries() + 1, retrySignal.failure().getMessage()))  // Log after each retry attempt
                 .onRetryExhaustedThrow(((retryBackoffSpec, retrySignal) -> {  // Handle retry exhaustion after all attempts fail
@@ -140,6 +417,12 @@ public class CommentService {
                 }));
     }
     
+    // Called when a retry was due but the budget is exhausted; the failure is returned instead of amplified
+    private void onRetryRejected(String id) {
+        retriesRejected.increment();
+        log.info("RetryBudget exhausted, not retrying commentId: {}", id);
+    }
+
     // Handles 4xx client errors from API responses
     private Mono<? extends Throwable> handle4xxClientError(ClientResponse response, String id) {
         return response.bodyToMono(String.class)  // Extract error response body as String
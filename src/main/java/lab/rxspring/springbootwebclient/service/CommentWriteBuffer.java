@@ -0,0 +1,142 @@
+package lab.rxspring.springbootwebclient.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import lab.rxspring.springbootwebclient.dao.CommentDao;
+import lab.rxspring.springbootwebclient.model.Comment;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+// Optional write-behind mode: buffers upserts and flushes them as one multi-row statement per size or time window.
+// Each caller's Mono completes only once the batch containing its row has been committed.
+@Slf4j
+@Component
+public class CommentWriteBuffer {
+
+    private record PendingWrite(Comment comment, Sinks.One<Comment> result, long enqueuedNanos) {
+    }
+
+    private final CommentDao commentDao;
+    private final CommentProperties.WriteBehind config;
+    private final Sinks.Many<PendingWrite> sink = Sinks.many().unicast().onBackpressureBuffer(Queues.<PendingWrite>unbounded().get());
+    private final AtomicInteger pending = new AtomicInteger();  // Accepted writes not yet committed
+    private final CountDownLatch drained = new CountDownLatch(1);
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+    private final Timer writeLatency;
+    private final Counter overflows;
+
+    public CommentWriteBuffer(CommentDao commentDao, CommentProperties properties, MeterRegistry meterRegistry) {
+        this.commentDao = commentDao;
+        this.config = properties.getWriteBehind();
+        this.batchSizes = DistributionSummary.builder("comments.write_behind.batch.size")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("comments.write_behind.flush")  // Duration of one batched upsert statement
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.writeLatency = Timer.builder("comments.write_behind.latency")  // Time from enqueue to commit as seen by a caller
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.overflows = Counter.builder("comments.write_behind.overflow")  // Writes sent directly because the buffer was full
+                .register(meterRegistry);
+        Gauge.builder("comments.write_behind.pending", pending, AtomicInteger::get)
+                .register(meterRegistry);
+        if (config.isEnabled()) {
+            startFlusher();
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    // Queues the comment for the next batch; completes with the stored row once its batch commits
+    public Mono<Comment> write(Comment comment) {
+        return Mono.defer(() -> {
+            if (pending.incrementAndGet() > config.getCapacity()) {  // Full: fall back to a direct single-row upsert
+                pending.decrementAndGet();
+                overflows.increment();
+                return commentDao.upsert(comment);
+            }
+            Sinks.One<Comment> result = Sinks.one();
+            try {
+                sink.emitNext(new PendingWrite(comment, result, System.nanoTime()),
+                        Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));  // Serializes concurrent producers
+            } catch (Sinks.EmissionException e) {
+                pending.decrementAndGet();
+                return Mono.error(e);
+            }
+            return result.asMono();
+        });
+    }
+
+    private void startFlusher() {
+        sink.asFlux()
+                .bufferTimeout(config.getMaxBatchSize(), config.getMaxWait(), true)  // Flush on size or time, honouring flush backpressure
+                .flatMap(this::flush, config.getFlushConcurrency())
+                .subscribe(null,
+                        err -> log.error("CommentWriteBuffer: flusher terminated, error: {}", ExceptionUtils.getRootCauseMessage(err)),
+                        drained::countDown);
+        log.info("CommentWriteBuffer: write-behind enabled, maxBatchSize: {}, maxWait: {}, capacity: {}",
+                config.getMaxBatchSize(), config.getMaxWait(), config.getCapacity());
+    }
+
+    // Upserts one batch and completes every caller waiting on it
+    private Mono<Void> flush(List<PendingWrite> batch) {
+        Map<Long, Comment> latest = new LinkedHashMap<>();  // ON CONFLICT cannot touch one row twice; the newest payload wins
+        batch.forEach(write -> latest.put(write.comment().getExternalCommentId(), write.comment()));
+        batchSizes.record(latest.size());
+        Timer.Sample sample = Timer.start();
+        return commentDao.upsertBatch(List.copyOf(latest.values()))
+                .collectMap(Comment::getExternalCommentId)
+                .doOnNext(saved -> batch.forEach(write -> {
+                    Comment comment = saved.get(write.comment().getExternalCommentId());
+                    writeLatency.record(System.nanoTime() - write.enqueuedNanos(), TimeUnit.NANOSECONDS);
+                    if (comment != null) {
+                        write.result().tryEmitValue(comment);
+                    } else {
+                        write.result().tryEmitError(new IllegalStateException("Row not returned by batch upsert"));
+                    }
+                }))
+                .doOnError(err -> {
+                    log.error("CommentWriteBuffer: batch of {} failed, error: {}", batch.size(), ExceptionUtils.getRootCauseMessage(err));
+                    batch.forEach(write -> write.result().tryEmitError(err));  // Callers see the original DataAccessException
+                })
+                .doFinally(signal -> {
+                    sample.stop(flushTimer);
+                    pending.addAndGet(-batch.size());
+                })
+                .onErrorResume(err -> Mono.empty())  // Keep the flusher alive for the next batch
+                .then();
+    }
+
+    // Flushes whatever is buffered before the connection pool shuts down
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!config.isEnabled()) {
+            return;
+        }
+        sink.emitComplete(Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+        if (!drained.await(config.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("CommentWriteBuffer: {} writes still pending at shutdown", pending.get());
+        }
+    }
+}
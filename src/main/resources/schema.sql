@@ -0,0 +1,34 @@
+-- Schema for the comments table; applied on startup when spring.sql.init.mode=always (SQL_INIT_MODE=always).
+-- Every statement is idempotent so it can also be run by hand against an existing database.
+
+CREATE TABLE IF NOT EXISTS comments (
+    id                  BIGSERIAL PRIMARY KEY,
+    post_id             BIGINT    NOT NULL,
+    external_comment_id BIGINT    NOT NULL UNIQUE,
+    name                TEXT,
+    email               TEXT,
+    body                TEXT,
+    created_at          TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at          TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Upstream validators used for conditional GET (If-None-Match / If-Modified-Since)
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS etag TEXT;
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS last_modified TEXT;
+
+-- Hash of post_id/name/email/body computed by CommentDao.contentHash; the upsert skips rewriting rows whose hash (and ETag) is unchanged
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS content_hash TEXT;
+
+-- Time the row was last confirmed against upstream (also on unchanged payloads); drives the background refresh
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS synced_at TIMESTAMP;
+
+-- Resume points for background jobs, keyed by job name
+CREATE TABLE IF NOT EXISTS sync_checkpoints (
+    name                       TEXT PRIMARY KEY,
+    last_external_comment_id   BIGINT    NOT NULL,
+    updated_at                 TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Keyset pagination of a post's comments: WHERE post_id = ? AND external_comment_id > ? ORDER BY external_comment_id.
+-- Lookups by external_comment_id use the index behind its UNIQUE constraint.
+CREATE INDEX IF NOT EXISTS comments_post_id_external_comment_id_idx ON comments (post_id, external_comment_id);
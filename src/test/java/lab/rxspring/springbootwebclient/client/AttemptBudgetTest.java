@@ -0,0 +1,135 @@
+package lab.rxspring.springbootwebclient.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.retry.Retry;
+
+class AttemptBudgetTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void startsFullAndRejectsOnceSpent() {
+        AttemptBudget budget = new AttemptBudget(10, 0, 2, clock::get);
+
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void eachRequestEarnsItsPercentage() {
+        AttemptBudget budget = new AttemptBudget(10, 0, 5, clock::get);
+        drain(budget);
+
+        for (int i = 0; i < 9; i++) {
+            budget.recordRequest();
+        }
+        assertThat(budget.tryAcquire()).isFalse();  // 0.9 tokens
+        budget.recordRequest();
+        assertThat(budget.tryAcquire()).isTrue();  // Ten requests pay for one extra attempt
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void perSecondFloorRefillsWithTime() {
+        AttemptBudget budget = new AttemptBudget(0, 2, 5, clock::get);
+        drain(budget);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        assertThat(budget.balance()).isCloseTo(0.5, within(1e-9));
+        assertThat(budget.tryAcquire()).isFalse();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        assertThat(budget.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void balanceIsCappedSoIdleTimeCannotBankABurst() {
+        AttemptBudget budget = new AttemptBudget(50, 1, 3, clock::get);
+        drain(budget);
+
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+        for (int i = 0; i < 100; i++) {
+            budget.recordRequest();
+        }
+        assertThat(budget.balance()).isEqualTo(3);
+    }
+
+    @Test
+    void maxBalanceIsAtLeastOneSoAnAttemptIsPossible() {
+        AttemptBudget budget = new AttemptBudget(100, 0, 0, clock::get);
+
+        assertThat(budget.tryAcquire()).isTrue();
+        budget.recordRequest();
+        assertThat(budget.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void requestThatKeepsFailingSpendsExactlyMaxRetriesTokens() {
+        AttemptBudget budget = new AttemptBudget(0, 0, 10, clock::get);
+        AtomicInteger subscriptions = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+
+        StepVerifier.create(failing(subscriptions, new IllegalStateException("upstream down"))
+                        .retryWhen(budget.limit(Retry.backoff(3, Duration.ofMillis(1)).jitter(0), rejections::incrementAndGet)))
+                .expectErrorMessage("Retries exhausted: 3/3")
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(subscriptions).hasValue(4);
+        assertThat(budget.balance()).isEqualTo(7);  // The terminal failure after the last retry is not charged
+        assertThat(rejections).hasValue(0);
+    }
+
+    @Test
+    void emptyBudgetStopsRetryingAndReportsOneRejection() {
+        AttemptBudget budget = new AttemptBudget(0, 0, 2, clock::get);
+        AtomicInteger subscriptions = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+
+        StepVerifier.create(failing(subscriptions, new IllegalStateException("upstream down"))
+                        .retryWhen(budget.limit(Retry.backoff(3, Duration.ofMillis(1)).jitter(0), rejections::incrementAndGet)))
+                .expectErrorMessage("upstream down")
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(subscriptions).hasValue(3);
+        assertThat(budget.balance()).isZero();
+        assertThat(rejections).hasValue(1);
+    }
+
+    @Test
+    void errorsTheSpecDoesNotRetryAreNotCharged() {
+        AttemptBudget budget = new AttemptBudget(0, 0, 2, clock::get);
+        AtomicInteger subscriptions = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+
+        StepVerifier.create(failing(subscriptions, new IllegalArgumentException("bad request"))
+                        .retryWhen(budget.limit(Retry.backoff(3, Duration.ofMillis(1)).jitter(0)
+                                .filter(IllegalStateException.class::isInstance), rejections::incrementAndGet)))
+                .expectErrorMessage("bad request")
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(subscriptions).hasValue(1);
+        assertThat(budget.balance()).isEqualTo(2);
+        assertThat(rejections).hasValue(0);
+    }
+
+    private static Mono<Object> failing(AtomicInteger subscriptions, RuntimeException error) {
+        return Mono.error(error).doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+    }
+
+    private static void drain(AttemptBudget budget) {
+        while (budget.tryAcquire()) {
+            // Spend the initial balance
+        }
+    }
+}
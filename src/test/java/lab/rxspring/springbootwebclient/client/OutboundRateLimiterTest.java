@@ -0,0 +1,257 @@
+package lab.rxspring.springbootwebclient.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+class OutboundRateLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+    private static final Instant WALL_TIME = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CommentProperties.Resilience.RateLimit config = new CommentProperties.Resilience.RateLimit();
+    private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://upstream/comments/1")).build();
+
+    OutboundRateLimiterTest() {
+        config.setEnabled(true);
+        config.setRatePerSecond(10);  // One permit per 100ms
+        config.setBurst(3);
+        config.setMaxQueue(100);
+        config.setMaxWait(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void burstIsFreeThenPermitsArePaced() {
+        OutboundRateLimiter limiter = limiter();
+
+        assertThat(limiter.reserve(clock.get(), false)).isZero();
+        assertThat(limiter.reserve(clock.get(), false)).isZero();
+        assertThat(limiter.reserve(clock.get(), false)).isZero();
+        assertThat(limiter.reserve(clock.get(), false)).isEqualTo(100 * MILLIS);
+        assertThat(limiter.reserve(clock.get(), false)).isEqualTo(200 * MILLIS);
+        assertThat(limiter.queued()).isEqualTo(2);
+    }
+
+    @Test
+    void permitsRefillOverTimeUpToTheBurst() {
+        OutboundRateLimiter limiter = limiter();
+        drainBurst(limiter);
+
+        clock.addAndGet(100 * MILLIS);
+        assertThat(limiter.reserve(clock.get(), false)).isZero();
+        assertThat(limiter.reserve(clock.get(), false)).isPositive();
+
+        clock.addAndGet(10_000 * MILLIS);  // Idle time banks at most 'burst' permits
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.reserve(clock.get(), false)).isZero();
+        }
+        assertThat(limiter.reserve(clock.get(), false)).isPositive();
+    }
+
+    @Test
+    void rejectsWhenTheWaitWouldExceedMaxWaitWithoutConsumingAPermit() {
+        config.setMaxWait(Duration.ofMillis(150));
+        OutboundRateLimiter limiter = limiter();
+        drainBurst(limiter);
+
+        assertThat(limiter.reserve(clock.get(), false)).isEqualTo(100 * MILLIS);
+        assertThat(limiter.reserve(clock.get(), false)).isEqualTo(-1);
+        assertThat(limiter.reserve(clock.get(), false)).isEqualTo(-1);
+        clock.addAndGet(100 * MILLIS);
+        assertThat(limiter.reserve(clock.get(), false)).isEqualTo(100 * MILLIS);  // Rejections left the schedule untouched
+    }
+
+    @Test
+    void rejectsWhenTheQueueIsFull() {
+        config.setMaxQueue(1);
+        OutboundRateLimiter limiter = limiter();
+        drainBurst(limiter);
+
+        assertThat(limiter.reserve(clock.get(), false)).isPositive();
+        assertThat(limiter.reserve(clock.get(), false)).isEqualTo(-1);
+    }
+
+    @Test
+    void freeOnlyCallersNeverQueue() {
+        OutboundRateLimiter limiter = limiter();
+
+        assertThat(limiter.reserve(clock.get(), true)).isZero();
+        drainBurst(limiter);
+        assertThat(limiter.reserve(clock.get(), true)).isEqualTo(-1);
+        assertThat(limiter.queued()).isZero();
+    }
+
+    @Test
+    void hedgeIsRejectedInsteadOfQueued() {
+        OutboundRateLimiter limiter = limiter();
+        drainBurst(limiter);
+
+        StepVerifier.create(limiter.filter(request, r -> Mono.just(response(HttpStatus.OK, null)))
+                        .contextWrite(Context.of(RequestHedger.HEDGE_KEY, true)))
+                .verifyError(RateLimitExceededException.class);
+        assertThat(meterRegistry.get("comments.upstream.ratelimit.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedHedgeLeavesThePrimaryToAnswer() {
+        config.setRatePerSecond(1);
+        config.setBurst(1);
+        OutboundRateLimiter limiter = limiter();
+        RequestHedger hedger = new RequestHedger(true, Duration.ofMillis(100), 0, Duration.ZERO, 0,
+                new AttemptBudget(100, 0, 10), meterRegistry);
+        Mono<ClientResponse> attempt = limiter.filter(request,
+                r -> Mono.delay(Duration.ofSeconds(2)).thenReturn(response(HttpStatus.OK, null)));  // Slow upstream
+
+        StepVerifier.withVirtualTime(() -> hedger.hedge(attempt))
+                .thenAwait(Duration.ofSeconds(2))
+                .assertNext(response -> assertThat(response.statusCode()).isEqualTo(HttpStatus.OK))
+                .verifyComplete();
+        assertThat(meterRegistry.get("comments.upstream.ratelimit.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("comments.upstream.hedges").tag("result", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tooManyRequestsPausesForRetryAfterSecondsAndHalvesTheRate() {
+        OutboundRateLimiter limiter = limiter();
+
+        exchange(limiter, response(HttpStatus.TOO_MANY_REQUESTS, "2"));
+
+        assertThat(limiter.currentRate()).isEqualTo(5);
+        assertThat(limiter.reserve(clock.get(), false)).isEqualTo(-1);  // 2s pause is beyond maxWait
+        clock.addAndGet(2_000 * MILLIS);
+        assertThat(limiter.reserve(clock.get(), false)).isZero();
+    }
+
+    @Test
+    void tooManyRequestsPausesUntilRetryAfterHttpDate() {
+        config.setMaxWait(Duration.ofSeconds(10));
+        OutboundRateLimiter limiter = limiter();
+        String threeSecondsLater = DateTimeFormatter.RFC_1123_DATE_TIME.format(WALL_TIME.plusSeconds(3).atZone(ZoneOffset.UTC));
+
+        exchange(limiter, response(HttpStatus.TOO_MANY_REQUESTS, threeSecondsLater));
+
+        assertThat(limiter.reserve(clock.get(), false)).isEqualTo(3_000 * MILLIS);
+    }
+
+    @Test
+    void missingOrInvalidRetryAfterUsesTheDefault() {
+        config.setMaxWait(Duration.ofSeconds(10));
+        config.setDefaultRetryAfter(Duration.ofMillis(500));
+        OutboundRateLimiter limiter = limiter();
+
+        exchange(limiter, response(HttpStatus.TOO_MANY_REQUESTS, "soon"));
+
+        assertThat(limiter.reserve(clock.get(), false)).isEqualTo(500 * MILLIS);
+    }
+
+    @Test
+    void oneRateCutPerThrottlingEpisodeThenLinearRecovery() {
+        config.setRecoveryPerSecond(1);
+        OutboundRateLimiter limiter = limiter();
+
+        exchange(limiter, response(HttpStatus.TOO_MANY_REQUESTS, "1"));
+        exchange(limiter, response(HttpStatus.TOO_MANY_REQUESTS, "1"));  // In flight when the first 429 arrived
+        assertThat(limiter.currentRate()).isEqualTo(5);
+        assertThat(meterRegistry.get("comments.upstream.ratelimit.throttled").counter().count()).isEqualTo(2);
+
+        clock.addAndGet(1_000 * MILLIS);
+        assertThat(limiter.currentRate()).isEqualTo(5);  // No recovery during the Retry-After pause
+        clock.addAndGet(1_000 * MILLIS);
+        assertThat(limiter.currentRate()).isCloseTo(6, within(1e-9));
+
+        exchange(limiter, response(HttpStatus.TOO_MANY_REQUESTS, "1"));  // A new episode
+        assertThat(limiter.currentRate()).isCloseTo(3, within(1e-9));
+
+        clock.addAndGet(4_000 * MILLIS);
+        assertThat(limiter.currentRate()).isCloseTo(6, within(1e-9));  // 1s pause, then 3s of recovery
+        clock.addAndGet(60_000 * MILLIS);
+        assertThat(limiter.currentRate()).isEqualTo(10);  // Never above the configured rate
+    }
+
+    @Test
+    void rateNeverDropsBelowTheFloor() {
+        config.setMinRatePerSecond(4);
+        OutboundRateLimiter limiter = limiter();
+
+        for (int i = 0; i < 5; i++) {
+            exchange(limiter, response(HttpStatus.TOO_MANY_REQUESTS, "0"));
+            clock.addAndGet(MILLIS);
+        }
+        assertThat(limiter.currentRate()).isCloseTo(4, within(0.01));
+    }
+
+    @Test
+    void disabledLimiterPassesEveryRequest() {
+        config.setEnabled(false);
+        OutboundRateLimiter limiter = limiter();
+        AtomicInteger exchanges = new AtomicInteger();
+
+        for (int i = 0; i < 50; i++) {
+            limiter.filter(request, r -> {
+                exchanges.incrementAndGet();
+                return Mono.just(response(HttpStatus.OK, null));
+            }).block();
+        }
+        assertThat(exchanges).hasValue(50);
+    }
+
+    @Test
+    void rejectsRatesAndBurstsThatCannotPaceRequests() {
+        config.setRatePerSecond(0);
+        assertThatIllegalArgumentException().isThrownBy(this::limiter).withMessageContaining("rate-per-second");
+        config.setRatePerSecond(Double.NaN);
+        assertThatIllegalArgumentException().isThrownBy(this::limiter).withMessageContaining("rate-per-second");
+        config.setRatePerSecond(10);
+        config.setBurst(0);
+        assertThatIllegalArgumentException().isThrownBy(this::limiter).withMessageContaining("burst");
+        config.setBurst(3);
+        config.setMinRatePerSecond(0);
+        assertThatIllegalArgumentException().isThrownBy(this::limiter).withMessageContaining("min-rate-per-second");
+    }
+
+    private OutboundRateLimiter limiter() {
+        return new OutboundRateLimiter(config, meterRegistry, clock::get, Clock.fixed(WALL_TIME, ZoneOffset.UTC));
+    }
+
+    private void drainBurst(OutboundRateLimiter limiter) {
+        while (limiter.reserve(clock.get(), true) == 0) {
+            // Take every free permit
+        }
+    }
+
+    private void exchange(OutboundRateLimiter limiter, ClientResponse response) {
+        limiter.filter(request, r -> Mono.just(response)).block();
+    }
+
+    private static ClientResponse response(HttpStatus status, String retryAfter) {
+        ClientResponse.Builder builder = ClientResponse.create(status);
+        if (retryAfter != null) {
+            builder.header(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return builder.build();
+    }
+}
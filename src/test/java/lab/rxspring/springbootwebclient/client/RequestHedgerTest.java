@@ -0,0 +1,84 @@
+package lab.rxspring.springbootwebclient.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class RequestHedgerTest {
+
+    private static final Duration HEDGE_DELAY = Duration.ofMillis(100);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    @Test
+    void hedgeWinsWhenPrimaryIsSlow() {
+        Mono<String> attempt = attempts(Mono.delay(Duration.ofSeconds(2)).thenReturn("primary"),
+                Mono.delay(Duration.ofMillis(10)).thenReturn("hedge"));
+
+        StepVerifier.withVirtualTime(() -> hedger(10).hedge(attempt))
+                .thenAwait(Duration.ofMillis(110))
+                .expectNext("hedge")
+                .verifyComplete();
+        assertThat(hedges("won")).isEqualTo(1);
+    }
+
+    @Test
+    void failingHedgeDoesNotCancelPrimary() {
+        Mono<String> attempt = attempts(Mono.delay(Duration.ofSeconds(2)).thenReturn("primary"),
+                Mono.error(new IllegalStateException("503 from upstream")));
+
+        StepVerifier.withVirtualTime(() -> hedger(10).hedge(attempt))
+                .thenAwait(Duration.ofSeconds(2))
+                .expectNext("primary")
+                .verifyComplete();
+        assertThat(hedges("failed")).isEqualTo(1);
+        assertThat(hedges("won")).isZero();
+    }
+
+    @Test
+    void primaryErrorStillFailsTheRequest() {
+        Mono<String> attempt = attempts(Mono.delay(Duration.ofMillis(300)).then(Mono.error(new IllegalStateException("primary failed"))),
+                Mono.never());
+
+        StepVerifier.withVirtualTime(() -> hedger(10).hedge(attempt))
+                .thenAwait(Duration.ofMillis(300))
+                .verifyErrorMessage("primary failed");
+    }
+
+    @Test
+    void noHedgeWithoutBudget() {
+        Mono<String> attempt = attempts(Mono.delay(Duration.ofSeconds(2)).thenReturn("primary"), Mono.just("hedge"));
+
+        StepVerifier.withVirtualTime(() -> hedger(0).hedge(attempt))
+                .thenAwait(Duration.ofSeconds(2))
+                .expectNext("primary")
+                .verifyComplete();
+        assertThat(subscriptions).hasValue(1);
+        assertThat(hedges("rejected_by_budget")).isEqualTo(1);
+    }
+
+    private RequestHedger hedger(double budgetBalance) {
+        AttemptBudget budget = new AttemptBudget(0, 0, Math.max(1, budgetBalance), () -> 0L);
+        if (budgetBalance == 0) {
+            budget.tryAcquire();  // Spend the minimum balance of one
+        }
+        return new RequestHedger(true, HEDGE_DELAY, 0, Duration.ZERO, 0, budget, meterRegistry);
+    }
+
+    // First subscription behaves like primary, later ones like hedge
+    private Mono<String> attempts(Mono<String> primary, Mono<String> hedge) {
+        return Mono.defer(() -> subscriptions.getAndIncrement() == 0 ? primary : hedge);
+    }
+
+    private double hedges(String result) {
+        return meterRegistry.get("comments.upstream.hedges").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,99 @@
+package lab.rxspring.springbootwebclient.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import lab.rxspring.springbootwebclient.model.Comment;
+import lab.rxspring.springbootwebclient.model.WriteOutcome;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CommentDaoTest {
+
+    @Test
+    void contentHashIsStableForEqualContent() {
+        assertThat(CommentDao.contentHash(comment(1, "name", "mail", "body")))
+                .isEqualTo(CommentDao.contentHash(comment(1, "name", "mail", "body")))
+                .hasSize(32);
+    }
+
+    @Test
+    void contentHashDistinguishesNullPositions() {  // Length prefixes and the NULL marker keep these apart
+        assertThat(CommentDao.contentHash(comment(1, null, "a", "body")))
+                .isNotEqualTo(CommentDao.contentHash(comment(1, "a", null, "body")));
+    }
+
+    @Test
+    void contentHashDistinguishesNullFromEmpty() {
+        assertThat(CommentDao.contentHash(comment(1, null, "mail", "body")))
+                .isNotEqualTo(CommentDao.contentHash(comment(1, "", "mail", "body")));
+    }
+
+    @Test
+    void contentHashDistinguishesValuesMovedAcrossFieldBoundaries() {
+        assertThat(CommentDao.contentHash(comment(1, "ab", "c", "body")))
+                .isNotEqualTo(CommentDao.contentHash(comment(1, "a", "bc", "body")));
+        assertThat(CommentDao.contentHash(comment(1, "a;", "b", "body")))
+                .isNotEqualTo(CommentDao.contentHash(comment(1, "a", ";b", "body")));
+    }
+
+    @Test
+    void upsertBatchRereadsRowsMissingFromTheUpsertResult() {
+        Comment inserted = comment(1, "name", "mail", "body");
+        inserted.setId(1L);
+        inserted.setWriteOutcome(WriteOutcome.INSERTED);
+        Comment concurrent = comment(1, "other", "mail", "body");
+        concurrent.setExternalCommentId(8L);
+        concurrent.setId(2L);
+        CommentDao dao = stub(Flux.just(inserted), Mono.just(concurrent));  // Row 8 was committed by another transaction mid-statement
+
+        StepVerifier.create(dao.upsertBatch(List.of(comment(1, "name", "mail", "body"), concurrent)))
+                .assertNext(saved -> assertThat(saved.getWriteOutcome()).isEqualTo(WriteOutcome.INSERTED))
+                .assertNext(saved -> {
+                    assertThat(saved.getId()).isEqualTo(2L);
+                    assertThat(saved.getWriteOutcome()).isEqualTo(WriteOutcome.UNCHANGED);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void upsertReturnsTheRereadRowWhenAConcurrentInsertWon() {
+        Comment concurrent = comment(1, "name", "mail", "body");
+        concurrent.setId(3L);
+        CommentDao dao = stub(Flux.empty(), Mono.just(concurrent));
+
+        StepVerifier.create(dao.upsert(comment(1, "name", "mail", "body")))
+                .assertNext(saved -> assertThat(saved.getWriteOutcome()).isEqualTo(WriteOutcome.UNCHANGED))
+                .verifyComplete();
+    }
+
+    // CommentDao whose upsertAll and findByExternalCommentId return canned results; default methods run for real
+    private static CommentDao stub(Flux<Comment> upserted, Mono<Comment> found) {
+        return (CommentDao) Proxy.newProxyInstance(CommentDao.class.getClassLoader(), new Class<?>[]{CommentDao.class}, (proxy, method, args) -> {
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            return switch (method.getName()) {
+                case "upsertAll" -> upserted;
+                case "findByExternalCommentId" -> found;
+                default -> throw new UnsupportedOperationException(method.getName());
+            };
+        });
+    }
+
+    private static Comment comment(long postId, String name, String email, String body) {
+        return Comment.builder()
+                .postId(postId)
+                .externalCommentId(7L)
+                .name(name)
+                .email(email)
+                .body(body)
+                .build();
+    }
+}
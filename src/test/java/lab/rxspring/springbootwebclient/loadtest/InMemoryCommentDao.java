@@ -0,0 +1,134 @@
+package lab.rxspring.springbootwebclient.loadtest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lab.rxspring.springbootwebclient.dao.CommentDao;
+import lab.rxspring.springbootwebclient.model.Comment;
+import lab.rxspring.springbootwebclient.model.WriteOutcome;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Testcontainers-free stand-in for the Postgres-backed CommentDao; implements the upsert semantics in memory
+public final class InMemoryCommentDao {
+
+    private final Map<Long, Comment> rows = new ConcurrentHashMap<>();
+    private final Map<Long, String> contentHashes = new ConcurrentHashMap<>();  // content_hash column, not mapped on Comment
+    private final AtomicLong ids = new AtomicLong();
+
+    private InMemoryCommentDao() {
+    }
+
+    public static CommentDao create() {
+        InMemoryCommentDao store = new InMemoryCommentDao();
+        return (CommentDao) Proxy.newProxyInstance(CommentDao.class.getClassLoader(), new Class<?>[]{CommentDao.class}, (proxy, method, args) -> {
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            return switch (method.getName()) {
+                case "upsertAll" -> Flux.defer(() -> {
+                    Long[] externalCommentIds = (Long[]) args[1];
+                    Comment[] saved = new Comment[externalCommentIds.length];
+                    for (int i = 0; i < externalCommentIds.length; i++) {
+                        saved[i] = store.upsert(((Long[]) args[0])[i], externalCommentIds[i], ((String[]) args[2])[i],
+                                ((String[]) args[3])[i], ((String[]) args[4])[i], ((String[]) args[5])[i], ((String[]) args[6])[i],
+                                ((String[]) args[7])[i]);
+                    }
+                    return Flux.fromArray(saved);
+                });
+                case "findByExternalCommentId" -> Mono.justOrEmpty(store.rows.get((Long) args[0])).map(InMemoryCommentDao::copy);
+                case "findWithFreshness" -> Mono.justOrEmpty(store.rows.get((Long) args[0]))
+                        .map(row -> withFreshness(row, (long) args[1]));
+                case "findByPostIdAfter" -> Flux.fromStream(() -> store.rows.values().stream()
+                        .filter(row -> row.getPostId() == (long) args[0] && row.getExternalCommentId() > (long) args[1])
+                        .sorted(Comparator.comparing(Comment::getExternalCommentId))
+                        .limit((int) args[2])
+                        .map(InMemoryCommentDao::copy));
+                case "markSynced" -> Mono.fromCallable(() -> {
+                    int updated = 0;
+                    for (Long externalCommentId : (Long[]) args[0]) {
+                        updated += store.rows.computeIfPresent(externalCommentId, (key, row) -> {
+                            Comment synced = copy(row);
+                            synced.setSyncedAt(Timestamp.from(Instant.now()));
+                            return synced;
+                        }) == null ? 0 : 1;
+                    }
+                    return updated;
+                });
+                case "count" -> Mono.just((long) store.rows.size());
+                case "toString" -> "InMemoryCommentDao(" + store.rows.size() + " rows)";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException("InMemoryCommentDao does not support " + method.getName());
+            };
+        });
+    }
+
+    // Same rule as the SQL: rewrite only when the content hash or a supplied ETag differs; missing validators keep the stored ones
+    private Comment upsert(Long postId, Long externalCommentId, String name, String email, String body, String etag,
+                           String lastModified, String contentHash) {
+        Comment[] result = new Comment[1];
+        rows.compute(externalCommentId, (key, existing) -> {
+            Timestamp now = Timestamp.from(Instant.now());
+            if (existing != null && Objects.equals(contentHashes.get(key), contentHash)
+                    && (etag == null || Objects.equals(existing.getEtag(), etag))) {
+                result[0] = withOutcome(existing, WriteOutcome.UNCHANGED);
+                return existing;
+            }
+            Comment row = Comment.builder()
+                    .id(existing == null ? ids.incrementAndGet() : existing.getId())
+                    .postId(postId)
+                    .externalCommentId(externalCommentId)
+                    .name(name)
+                    .email(email)
+                    .body(body)
+                    .etag(etag == null && existing != null ? existing.getEtag() : etag)
+                    .lastModified(lastModified == null && existing != null ? existing.getLastModified() : lastModified)
+                    .createdAt(existing == null ? now : existing.getCreatedAt())
+                    .updatedAt(now)
+                    .syncedAt(now)
+                    .build();
+            contentHashes.put(key, contentHash);
+            result[0] = withOutcome(row, existing == null ? WriteOutcome.INSERTED : WriteOutcome.UPDATED);
+            return row;
+        });
+        return result[0];
+    }
+
+    // Same rule as the SQL: fresh while COALESCE(synced_at, updated_at) is within maxAgeSeconds of now
+    private static Comment withFreshness(Comment row, long maxAgeSeconds) {
+        Comment copy = copy(row);
+        Timestamp confirmedAt = row.getSyncedAt() != null ? row.getSyncedAt() : row.getUpdatedAt();
+        copy.setFresh(confirmedAt == null ? null : !confirmedAt.toInstant().isBefore(Instant.now().minusSeconds(maxAgeSeconds)));
+        return copy;
+    }
+
+    private static Comment withOutcome(Comment row, WriteOutcome outcome) {
+        Comment copy = copy(row);
+        copy.setWriteOutcome(outcome);
+        return copy;
+    }
+
+    private static Comment copy(Comment row) {
+        return Comment.builder()
+                .id(row.getId())
+                .postId(row.getPostId())
+                .externalCommentId(row.getExternalCommentId())
+                .name(row.getName())
+                .email(row.getEmail())
+                .body(row.getBody())
+                .etag(row.getEtag())
+                .lastModified(row.getLastModified())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .syncedAt(row.getSyncedAt())
+                .build();
+    }
+}
@@ -0,0 +1,221 @@
+package lab.rxspring.springbootwebclient.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import lab.rxspring.springbootwebclient.SpringbootWebclientApplication;
+import lab.rxspring.springbootwebclient.dao.CommentDao;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Drives CommentController against a local upstream stub and reports latency percentiles, throughput and errors.
+ * <p>
+ * Run with {@code mvn -Pload-test test-compile exec:java -Dload.args="--rps=500 --duration=30s"}.
+ * Harness options (defaults in brackets): --mode=rps|concurrency [rps], --rps [200], --concurrency [32],
+ * --max-in-flight [1024], --duration [30s], --warmup [5s], --ids [1000], --upstream-latency [20ms],
+ * --upstream-jitter [10ms], --upstream-error-rate [0.0], --upstream-slow-rate [0.0], --upstream-slow-latency [1s],
+ * --upstream-quota [0, unlimited; requests per second beyond it get 429], --payload-bytes [256], --db=memory|postgres [memory],
+ * --path [/api/v1/external/comments/{id}] (e.g. /api/v1/comments/{id} for database-first reads).
+ * Any other --key=value argument (e.g. --comments.cache.enabled=false) is passed to the application.
+ */
+public final class LoadTestHarness {
+
+    private final Map<String, String> options;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    private LoadTestHarness(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            if (pair[0].contains(".")) {
+                applicationArgs.add(arg);  // Spring property, forwarded as-is
+            } else {
+                options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+            }
+        }
+        new LoadTestHarness(options).run(applicationArgs.toArray(String[]::new));
+        System.exit(0);
+    }
+
+    private void run(String[] applicationArgs) {
+        try (UpstreamStubServer upstream = UpstreamStubServer.start(
+                duration("upstream-latency", "20ms"),
+                duration("upstream-jitter", "10ms"),
+                Double.parseDouble(option("upstream-error-rate", "0.0")),
+                Integer.parseInt(option("payload-bytes", "256")))
+                .withSlowTail(Double.parseDouble(option("upstream-slow-rate", "0.0")), duration("upstream-slow-latency", "1s"))
+                .withQuota(Integer.parseInt(option("upstream-quota", "0")))) {
+            ConfigurableApplicationContext context = startApplication(upstream, applicationArgs);
+            try {
+                WebClient client = WebClient.builder()
+                        .baseUrl("http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port"))
+                        .clientConnector(new ReactorClientHttpConnector(HttpClient.create(ConnectionProvider.builder("load-test")
+                                .maxConnections(Integer.parseInt(option("max-in-flight", "1024")))
+                                .pendingAcquireMaxCount(-1)
+                                .build())))
+                        .build();
+                Duration warmup = duration("warmup", "5s");
+                if (!warmup.isZero()) {
+                    drive(client, warmup);  // JIT, pools and caches warm up; results are discarded
+                    recorder.reset();
+                }
+                long upstreamBefore = upstream.requests();
+                long throttledBefore = upstream.throttled();
+                Duration measured = duration("duration", "30s");
+                drive(client, measured);
+                report(measured, upstream.requests() - upstreamBefore, upstream.errors(), upstream.throttled() - throttledBefore);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(UpstreamStubServer upstream, String[] applicationArgs) {
+        Map<String, String> properties = new LinkedHashMap<>();  // Passed as command-line args so they override application.yaml
+        properties.put("server.port", "0");
+        properties.put("comments.http.base-url", upstream.baseUrl());
+        properties.put("logging.level.lab.rxspring.springbootwebclient", "WARN");
+        properties.put("logging.level.root", "WARN");
+        properties.put("spring.main.banner-mode", "off");
+        SpringApplicationBuilder application = new SpringApplicationBuilder(SpringbootWebclientApplication.class);
+        if ("memory".equals(option("db", "memory"))) {  // Replace the R2DBC repository with the in-memory stand-in
+            properties.put("spring.data.r2dbc.repositories.enabled", "false");
+            application.initializers(context -> ((GenericApplicationContext) context)
+                    .registerBean(CommentDao.class, InMemoryCommentDao::create));
+        }
+        for (String arg : applicationArgs) {  // Caller-supplied properties replace the defaults above
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            properties.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        return application.run(properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new));
+    }
+
+    private void drive(WebClient client, Duration duration) {
+        int ids = Integer.parseInt(option("ids", "1000"));
+        String path = option("path", "/api/v1/external/comments/{id}");
+        if ("concurrency".equals(option("mode", "rps"))) {
+            // Closed loop: each worker sends its next request as soon as the previous one completes
+            int concurrency = Integer.parseInt(option("concurrency", "32"));
+            long deadline = System.nanoTime() + duration.toNanos();
+            Flux.range(0, concurrency)
+                    .flatMap(worker -> call(client, path, ids).repeat(() -> System.nanoTime() < deadline), concurrency)
+                    .blockLast();
+            return;
+        }
+        // Open loop: requests are released on a fixed schedule regardless of latency; excess beyond max-in-flight is dropped
+        double rps = Double.parseDouble(option("rps", "200"));
+        int maxInFlight = Integer.parseInt(option("max-in-flight", "1024"));
+        long startNanos = System.nanoTime();
+        AtomicLong released = new AtomicLong();
+        Flux.interval(Duration.ofMillis(10))
+                .take(duration)
+                .flatMapIterable(tick -> {
+                    long due = (long) ((System.nanoTime() - startNanos) / 1_000_000_000d * rps) - released.get();
+                    released.addAndGet(Math.max(0, due));
+                    return Collections.nCopies((int) Math.max(0, due), tick);
+                })
+                .onBackpressureDrop(tick -> recorder.dropped.increment())
+                .flatMap(tick -> call(client, path, ids), maxInFlight)
+                .blockLast();
+    }
+
+    private Mono<Void> call(WebClient client, String path, int ids) {
+        return Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            return client.get()
+                    .uri(path, ThreadLocalRandom.current().nextInt(ids) + 1)
+                    .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().is2xxSuccessful()))
+                    .onErrorReturn(false)
+                    .doOnNext(ok -> recorder.record(System.nanoTime() - startNanos, ok))
+                    .then();
+        });
+    }
+
+    private void report(Duration duration, long upstreamRequests, long upstreamErrors, long upstreamThrottled) {
+        long[] latencies = recorder.snapshot();
+        double seconds = duration.toNanos() / 1_000_000_000d;
+        System.out.printf("%n==== Load test: %s ====%n", options);
+        System.out.printf("requests:        %d (ok %d, errors %d, dropped %d)%n",
+                latencies.length, recorder.ok.sum(), recorder.errors.sum(), recorder.dropped.sum());
+        System.out.printf("throughput:      %.1f req/s (ok %.1f req/s)%n", latencies.length / seconds, recorder.ok.sum() / seconds);
+        System.out.printf("latency ms:      p50 %.2f  p90 %.2f  p99 %.2f  max %.2f%n",
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.90),
+                percentileMillis(latencies, 0.99), percentileMillis(latencies, 1.0));
+        System.out.printf("upstream calls:  %d (%.2f per request, %d injected errors total)%n",
+                upstreamRequests, latencies.length == 0 ? 0d : (double) upstreamRequests / latencies.length, upstreamErrors);
+        System.out.printf("upstream 429s:   %d%n", upstreamThrottled);
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0d;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1_000_000d;
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private Duration duration(String name, String defaultValue) {
+        return DurationStyle.detectAndParse(option(name, defaultValue));
+    }
+
+    // Collects every request latency; percentiles are computed exactly from the sorted samples at the end
+    private static final class LatencyRecorder {
+
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private long[] samples = new long[1 << 16];
+        private int size;
+
+        synchronized void record(long nanos, boolean success) {
+            (success ? ok : errors).increment();
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        synchronized long[] snapshot() {
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        synchronized void reset() {
+            ok.reset();
+            errors.reset();
+            dropped.reset();
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package lab.rxspring.springbootwebclient.loadtest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+// Local reactor-netty stand-in for the upstream comments API with configurable latency, error rate and payload size
+public final class UpstreamStubServer implements AutoCloseable {
+
+    private static final int COMMENTS_PER_POST = 5;
+
+    private final DisposableServer server;
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final String bodyText;
+    private final int collectionSize;
+    private volatile double slowRate;
+    private volatile Duration slowLatency = Duration.ZERO;
+    private volatile int quotaPerSecond;  // 0 means unlimited
+    private final AtomicLong quotaWindow = new AtomicLong();
+    private final AtomicInteger quotaUsed = new AtomicInteger();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private UpstreamStubServer(Duration latency, Duration jitter, double errorRate, int bodyBytes, int collectionSize) {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.bodyText = "x".repeat(Math.max(0, bodyBytes));
+        this.collectionSize = collectionSize;
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.get("/comments", (request, response) -> {  // Collection, streamed element by element
+                    requests.increment();
+                    List<String> postIds = new QueryStringDecoder(request.uri()).parameters().get("postId");
+                    long first = postIds == null ? 1 : (Long.parseLong(postIds.getFirst()) - 1) * COMMENTS_PER_POST + 1;
+                    long last = postIds == null ? collectionSize : first + COMMENTS_PER_POST - 1;
+                    Flux<String> elements = Flux.range(0, (int) (last - first + 1))
+                            .map(offset -> (offset == 0 ? "" : ",") + commentJson(first + offset));
+                    return response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .sendString(Mono.delay(delay()).thenMany(Flux.concat(Mono.just("["), elements, Mono.just("]"))));
+                }).get("/comments/{id}", (request, response) -> {
+                    requests.increment();
+                    if (overQuota()) {  // Simulated upstream quota
+                        throttled.increment();
+                        return response.status(HttpResponseStatus.TOO_MANY_REQUESTS)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .sendString(Mono.just("{\"error\":\"rate limited\"}"));
+                    }
+                    Duration delay = delay();
+                    if (ThreadLocalRandom.current().nextDouble() < errorRate) {  // Simulated upstream failure
+                        errors.increment();
+                        return response.status(HttpResponseStatus.SERVICE_UNAVAILABLE)
+                                .sendString(Mono.delay(delay).thenReturn("{\"error\":\"unavailable\"}"));
+                    }
+                    String id = request.param("id");
+                    return response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .sendString(Mono.delay(delay).thenReturn(commentJson(Long.parseLong(id))));
+                }))
+                .bindNow();
+    }
+
+    public static UpstreamStubServer start(Duration latency, Duration jitter, double errorRate, int bodyBytes) {
+        return start(latency, jitter, errorRate, bodyBytes, 500);
+    }
+
+    // collectionSize is the number of comments served by GET /comments without a postId filter
+    public static UpstreamStubServer start(Duration latency, Duration jitter, double errorRate, int bodyBytes, int collectionSize) {
+        return new UpstreamStubServer(latency, jitter, errorRate, bodyBytes, collectionSize);
+    }
+
+    // Makes a fraction of responses take slowLatency instead, to model a heavy latency tail (e.g. a stalled connection)
+    public UpstreamStubServer withSlowTail(double rate, Duration latency) {
+        this.slowRate = rate;
+        this.slowLatency = latency;
+        return this;
+    }
+
+    // Answers single-comment requests beyond quotaPerSecond in each one-second window with 429 and Retry-After: 1
+    public UpstreamStubServer withQuota(int quotaPerSecond) {
+        this.quotaPerSecond = quotaPerSecond;
+        return this;
+    }
+
+    // Base URL to use as comments.http.base-url
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.port() + "/comments";
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public long throttled() {
+        return throttled.sum();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private boolean overQuota() {
+        if (quotaPerSecond <= 0) {
+            return false;
+        }
+        long window = System.nanoTime() / 1_000_000_000L;
+        long current = quotaWindow.get();
+        if (window != current && quotaWindow.compareAndSet(current, window)) {
+            quotaUsed.set(0);
+        }
+        return quotaUsed.incrementAndGet() > quotaPerSecond;
+    }
+
+    private Duration delay() {
+        if (slowRate > 0 && ThreadLocalRandom.current().nextDouble() < slowRate) {
+            return slowLatency;
+        }
+        long jitterNanos = jitter.toNanos() > 0 ? ThreadLocalRandom.current().nextLong(jitter.toNanos()) : 0;
+        return latency.plusNanos(jitterNanos);
+    }
+
+    private String commentJson(long id) {
+        return "{\"postId\":" + ((id - 1) / COMMENTS_PER_POST + 1)
+                + ",\"id\":" + id
+                + ",\"name\":\"comment " + id + "\""
+                + ",\"email\":\"user" + id + "@example.com\""
+                + ",\"body\":\"" + bodyText + "\"}";
+    }
+}
@@ -0,0 +1,82 @@
+package lab.rxspring.springbootwebclient.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CorrelationIdFilterTest {
+
+    private final CommentProperties properties = new CommentProperties();
+    private final AtomicReference<RequestContext> seen = new AtomicReference<>();
+    private final WebFilterChain chain = exchange -> Mono.deferContextual(context -> {
+        seen.set(RequestContext.current(context));
+        return Mono.empty();
+    });
+
+    @Test
+    void usableRequestIdIsPropagatedAndEchoed() {
+        MockServerWebExchange exchange = filter("order-42_retry.1");
+
+        assertThat(seen.get().requestId()).isEqualTo("order-42_retry.1");
+        assertThat(exchange.getResponse().getHeaders().getFirst(RequestContext.HEADER)).isEqualTo("order-42_retry.1");
+    }
+
+    @Test
+    void missingRequestIdIsGenerated() {
+        MockServerWebExchange exchange = filter(null);
+
+        assertThat(seen.get().requestId()).matches("[0-9a-f]{16}");
+        assertThat(exchange.getResponse().getHeaders().getFirst(RequestContext.HEADER)).isEqualTo(seen.get().requestId());
+    }
+
+    @Test
+    void requestIdsThatCouldForgeLogLinesAreReplaced() {
+        for (String unsafe : new String[]{"abc\r\nlevel=ERROR", "abc def", "id\"}", "id=1", "\u001b[31mred", ""}) {
+            filter(unsafe);
+            assertThat(seen.get().requestId()).as(unsafe).matches("[0-9a-f]{16}");
+        }
+    }
+
+    @Test
+    void requestIdsLongerThan64CharactersAreReplaced() {
+        filter("a".repeat(64));
+        assertThat(seen.get().requestId()).isEqualTo("a".repeat(64));
+
+        filter("a".repeat(65));
+        assertThat(seen.get().requestId()).matches("[0-9a-f]{16}");
+    }
+
+    @Test
+    void sampleRateDecidesWhetherTheRequestIsSampled() {
+        properties.getLogging().setSampleRate(0);
+        filter("id");
+        assertThat(seen.get().sampled()).isFalse();
+
+        properties.getLogging().setSampleRate(1);
+        filter("id");
+        assertThat(seen.get().sampled()).isTrue();
+    }
+
+    private MockServerWebExchange filter(String requestId) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/v1/comments/1");
+        if (requestId != null) {
+            request.header(RequestContext.HEADER, requestId);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        seen.set(null);
+        StepVerifier.create(new CorrelationIdFilter(properties).filter(exchange, chain))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        return exchange;
+    }
+}
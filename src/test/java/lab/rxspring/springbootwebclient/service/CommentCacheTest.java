@@ -0,0 +1,107 @@
+package lab.rxspring.springbootwebclient.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import lab.rxspring.springbootwebclient.model.Comment;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class CommentCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CommentProperties properties = new CommentProperties();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void missLoadsOnceThenHits() {
+        CommentCache cache = new CommentCache(properties, meterRegistry);
+
+        StepVerifier.create(cache.get("1", this::load)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.get("1", this::load)).expectNextCount(1).verifyComplete();
+
+        assertThat(loads).hasValue(1);
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(requests("coalesced")).isZero();
+    }
+
+    @Test
+    void concurrentMissesShareOneLoadAndCountAsCoalesced() {
+        CommentCache cache = new CommentCache(properties, meterRegistry);
+        Sinks.One<Comment> upstream = Sinks.one();
+
+        Mono<Comment> first = cache.get("1", id -> {
+            loads.incrementAndGet();
+            return upstream.asMono();
+        });
+        Mono<Comment> second = cache.get("1", this::load);
+        Comment comment = Comment.builder().externalCommentId(1L).build();
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> upstream.tryEmitValue(comment))
+                .assertNext(pair -> {
+                    assertThat(pair.getT1()).isSameAs(comment);
+                    assertThat(pair.getT2()).isSameAs(comment);
+                })
+                .verifyComplete();
+
+        assertThat(loads).hasValue(1);
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(requests("coalesced")).isEqualTo(1);
+        assertThat(requests("hit")).isZero();  // The joined in-flight load is not reported as a hit
+    }
+
+    @Test
+    void emptyLoadIsNotCached() {
+        CommentCache cache = new CommentCache(properties, meterRegistry);
+
+        StepVerifier.create(cache.get("1", id -> {
+            loads.incrementAndGet();
+            return Mono.empty();
+        })).verifyComplete();
+        StepVerifier.create(cache.get("1", this::load)).expectNextCount(1).verifyComplete();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void putReplacesCachedEntry() {
+        CommentCache cache = new CommentCache(properties, meterRegistry);
+        Comment refreshed = Comment.builder().externalCommentId(1L).body("refreshed").build();
+
+        StepVerifier.create(cache.get("1", this::load)).expectNextCount(1).verifyComplete();
+        cache.put("1", refreshed);
+
+        StepVerifier.create(cache.get("1", this::load)).expectNext(refreshed).verifyComplete();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        properties.getCache().setEnabled(false);
+        CommentCache cache = new CommentCache(properties, meterRegistry);
+
+        StepVerifier.create(cache.get("1", this::load)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.get("1", this::load)).expectNextCount(1).verifyComplete();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private Mono<Comment> load(String id) {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return Comment.builder().externalCommentId(Long.parseLong(id)).build();
+        });
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("comments.cache.requests").tag("result", result).functionCounter().count();
+    }
+}
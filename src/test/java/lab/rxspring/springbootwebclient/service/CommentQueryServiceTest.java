@@ -0,0 +1,171 @@
+package lab.rxspring.springbootwebclient.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import lab.rxspring.springbootwebclient.dao.CommentDao;
+import lab.rxspring.springbootwebclient.model.Comment;
+import lab.rxspring.springbootwebclient.model.WriteOutcome;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CommentQueryServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final long ID = 7L;
+    private static final long MAX_AGE_SECONDS = 600L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CommentProperties properties = new CommentProperties();
+    private final CommentDao commentDao = mock(CommentDao.class);
+    private final CommentService commentService = mock(CommentService.class);
+    private final CommentAccessTracker accessTracker = new CommentAccessTracker(properties);
+
+    @BeforeEach
+    void setUp() {
+        when(commentDao.markSynced(any())).thenReturn(Mono.just(1));
+    }
+
+    @Test
+    void freshRowIsServedWithoutGoingUpstream() {
+        when(commentDao.findWithFreshness(ID, MAX_AGE_SECONDS)).thenReturn(Mono.just(stored(true)));
+
+        StepVerifier.create(service().getComment(ID))
+                .assertNext(comment -> assertThat(comment.getBody()).isEqualTo("stored"))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        verify(commentService, never()).getExternalCommentById(anyString());
+        assertThat(outcome("read_fresh")).isEqualTo(1);
+        assertThat(accessTracker.hottest(1)).containsExactly(ID);  // Database-served reads still count as accesses
+    }
+
+    @Test
+    void staleRowGoesUpstreamAndAnUnchangedAnswerIsMarkedSynced() {
+        when(commentDao.findWithFreshness(ID, MAX_AGE_SECONDS)).thenReturn(Mono.just(stored(false)));
+        when(commentService.getExternalCommentById("7")).thenReturn(Mono.just(upstream(WriteOutcome.UNCHANGED)));
+
+        StepVerifier.create(service().getComment(ID))
+                .assertNext(comment -> assertThat(comment.getBody()).isEqualTo("upstream"))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        verify(commentDao).markSynced(aryEq(new Long[]{ID}));
+        assertThat(outcome("read_stale")).isEqualTo(1);
+    }
+
+    @Test
+    void changedUpstreamAnswerIsNotMarkedSyncedAgain() {
+        when(commentDao.findWithFreshness(ID, MAX_AGE_SECONDS)).thenReturn(Mono.just(stored(false)));
+        when(commentService.getExternalCommentById("7")).thenReturn(Mono.just(upstream(WriteOutcome.UPDATED)));
+
+        StepVerifier.create(service().getComment(ID))
+                .assertNext(comment -> assertThat(comment.getWriteOutcome()).isEqualTo(WriteOutcome.UPDATED))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        verify(commentDao, never()).markSynced(any());  // The upsert already moved synced_at
+    }
+
+    @Test
+    void failedMarkSyncedStillServesTheComment() {
+        when(commentDao.findWithFreshness(ID, MAX_AGE_SECONDS)).thenReturn(Mono.just(stored(false)));
+        when(commentService.getExternalCommentById("7")).thenReturn(Mono.just(upstream(WriteOutcome.UNCHANGED)));
+        when(commentDao.markSynced(any())).thenReturn(Mono.error(new DataAccessResourceFailureException("connection lost")));
+
+        StepVerifier.create(service().getComment(ID))
+                .assertNext(comment -> assertThat(comment.getBody()).isEqualTo("upstream"))
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void staleRowIsServedWhenUpstreamFails() {
+        when(commentDao.findWithFreshness(ID, MAX_AGE_SECONDS)).thenReturn(Mono.just(stored(false)));
+        when(commentService.getExternalCommentById("7")).thenReturn(Mono.error(new RuntimeException("upstream down")));
+
+        StepVerifier.create(service().getComment(ID))
+                .assertNext(comment -> assertThat(comment.getBody()).isEqualTo("stored"))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(outcome("read_stale_served")).isEqualTo(1);
+    }
+
+    @Test
+    void staleRowIsServedWhenUpstreamReturnsNothing() {
+        when(commentDao.findWithFreshness(ID, MAX_AGE_SECONDS)).thenReturn(Mono.just(stored(false)));
+        when(commentService.getExternalCommentById("7")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service().getComment(ID))
+                .assertNext(comment -> assertThat(comment.getBody()).isEqualTo("stored"))
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void upstreamErrorPropagatesWhenServingStaleIsDisabled() {
+        properties.getRead().setServeStaleOnError(false);
+        when(commentDao.findWithFreshness(ID, MAX_AGE_SECONDS)).thenReturn(Mono.just(stored(false)));
+        when(commentService.getExternalCommentById("7")).thenReturn(Mono.error(new RuntimeException("upstream down")));
+
+        StepVerifier.create(service().getComment(ID))
+                .expectErrorMessage("upstream down")
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void missingRowGoesUpstreamWithoutAStaleFallback() {
+        when(commentDao.findWithFreshness(ID, MAX_AGE_SECONDS)).thenReturn(Mono.empty());
+        when(commentService.getExternalCommentById("7")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service().getComment(ID))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(outcome("read_miss")).isEqualTo(1);
+    }
+
+    @Test
+    void databaseErrorIsTreatedAsAMissAndFallsThroughToUpstream() {
+        when(commentDao.findWithFreshness(ID, MAX_AGE_SECONDS)).thenReturn(Mono.error(new DataAccessResourceFailureException("connection lost")));
+        when(commentService.getExternalCommentById("7")).thenReturn(Mono.just(upstream(WriteOutcome.INSERTED)));
+
+        StepVerifier.create(service().getComment(ID))
+                .assertNext(comment -> assertThat(comment.getBody()).isEqualTo("upstream"))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(outcome("read_miss")).isEqualTo(1);
+    }
+
+    private CommentQueryService service() {
+        return new CommentQueryService(commentDao, commentService, properties, new CommentMetrics(meterRegistry), accessTracker);
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("comments.pipeline.outcome").tag("outcome", outcome).counter().count();
+    }
+
+    private static Comment stored(boolean fresh) {
+        return Comment.builder().postId(1).externalCommentId(ID).body("stored").fresh(fresh).build();
+    }
+
+    private static Comment upstream(WriteOutcome outcome) {
+        return Comment.builder().postId(1).externalCommentId(ID).body("upstream").writeOutcome(outcome).build();
+    }
+}
@@ -0,0 +1,140 @@
+package lab.rxspring.springbootwebclient.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import lab.rxspring.springbootwebclient.dao.CommentDao;
+import lab.rxspring.springbootwebclient.dao.SyncCheckpointDao;
+import lab.rxspring.springbootwebclient.model.Comment;
+import lab.rxspring.springbootwebclient.model.SyncCheckpoint;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CommentRefresherTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final String CHECKPOINT = "comments-refresh";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CommentProperties properties = new CommentProperties();
+    private final CommentService commentService = mock(CommentService.class);
+    private final CommentDao commentDao = mock(CommentDao.class);
+    private final SyncCheckpointDao checkpointDao = mock(SyncCheckpointDao.class);
+    private final CommentAccessTracker accessTracker = new CommentAccessTracker(properties);
+
+    @BeforeEach
+    void setUp() {
+        properties.getRefresh().setBatchSize(3);
+        properties.getRefresh().setRatePerSecond(1_000);  // Keep the spacing between fetches negligible
+        when(commentService.refreshExternalComment(anyString()))
+                .thenAnswer(invocation -> Mono.just(comment(Long.parseLong(invocation.getArgument(0)))));
+        when(commentDao.markSynced(any())).thenAnswer(invocation -> Mono.just(((Long[]) invocation.getArgument(0)).length));
+        when(checkpointDao.saveCheckpoint(anyString(), anyLong())).thenReturn(Mono.just(1));
+    }
+
+    @Test
+    void fullPageAdvancesTheCheckpointToItsLastId() {
+        checkpointAt(10L);
+        when(commentDao.findStaleAfter(10L, 600L, 3)).thenReturn(Flux.just(comment(11), comment(12), comment(13)));
+
+        StepVerifier.create(refresher().runCycle()).expectComplete().verify(TIMEOUT);
+
+        verify(checkpointDao).saveCheckpoint(CHECKPOINT, 13L);
+        assertThat(synced()).containsExactlyInAnyOrder(11L, 12L, 13L);
+        assertThat(refreshed("refreshed")).isEqualTo(3);
+    }
+
+    @Test
+    void shortPageWrapsTheCheckpointAroundToTheStart() {
+        checkpointAt(10L);
+        when(commentDao.findStaleAfter(10L, 600L, 3)).thenReturn(Flux.just(comment(11)));
+
+        StepVerifier.create(refresher().runCycle()).expectComplete().verify(TIMEOUT);
+
+        verify(checkpointDao).saveCheckpoint(CHECKPOINT, 0L);
+        assertThat(synced()).containsExactly(11L);
+    }
+
+    @Test
+    void missingCheckpointScansFromTheStartAndAnEmptyPassSavesNothing() {
+        when(checkpointDao.findById(CHECKPOINT)).thenReturn(Mono.empty());
+        when(commentDao.findStaleAfter(0L, 600L, 3)).thenReturn(Flux.empty());
+
+        StepVerifier.create(refresher().runCycle()).expectComplete().verify(TIMEOUT);
+
+        verify(checkpointDao, never()).saveCheckpoint(anyString(), anyLong());
+        verify(commentDao, never()).markSynced(any());
+    }
+
+    @Test
+    void staleHotIdsGoFirstAndShrinkTheScanBudget() {
+        accessTracker.recordAccess("5");
+        accessTracker.recordAccess("5");
+        accessTracker.recordAccess("6");
+        when(commentDao.findStaleAmong(any(), eq(600L))).thenReturn(Flux.just(comment(6)));  // 5 is still fresh
+        checkpointAt(10L);
+        when(commentDao.findStaleAfter(10L, 600L, 2)).thenReturn(Flux.just(comment(11), comment(12)));
+
+        StepVerifier.create(refresher().runCycle()).expectComplete().verify(TIMEOUT);
+
+        verify(commentService, never()).refreshExternalComment("5");
+        verify(checkpointDao).saveCheckpoint(CHECKPOINT, 12L);
+        assertThat(refreshed("refreshed")).isEqualTo(3);
+    }
+
+    @Test
+    void failedRefreshesStayStaleAndAreCounted() {
+        checkpointAt(10L);
+        when(commentDao.findStaleAfter(10L, 600L, 3)).thenReturn(Flux.just(comment(11), comment(12), comment(13)));
+        when(commentService.refreshExternalComment("12")).thenReturn(Mono.error(new IllegalStateException("upstream down")));
+
+        StepVerifier.create(refresher().runCycle()).expectComplete().verify(TIMEOUT);
+
+        assertThat(synced()).containsExactlyInAnyOrder(11L, 13L);
+        assertThat(refreshed("refreshed")).isEqualTo(2);
+        assertThat(refreshed("failed")).isEqualTo(1);
+        verify(checkpointDao).saveCheckpoint(CHECKPOINT, 13L);  // The scan moves on; the refresher retries the row on its next pass
+    }
+
+    private CommentRefresher refresher() {
+        return new CommentRefresher(commentService, commentDao, checkpointDao, accessTracker, properties, meterRegistry);
+    }
+
+    private void checkpointAt(long lastExternalCommentId) {
+        when(checkpointDao.findById(CHECKPOINT)).thenReturn(Mono.just(SyncCheckpoint.builder()
+                .name(CHECKPOINT)
+                .lastExternalCommentId(lastExternalCommentId)
+                .build()));
+    }
+
+    private Set<Long> synced() {
+        ArgumentCaptor<Long[]> ids = ArgumentCaptor.forClass(Long[].class);
+        verify(commentDao).markSynced(ids.capture());
+        return Set.of(ids.getValue());
+    }
+
+    private double refreshed(String result) {
+        return meterRegistry.get("comments.refresh.comments").tag("result", result).counter().count();
+    }
+
+    private static Comment comment(long externalCommentId) {
+        return Comment.builder().postId(1).externalCommentId(externalCommentId).build();
+    }
+}
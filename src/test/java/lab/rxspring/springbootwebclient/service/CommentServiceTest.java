@@ -0,0 +1,77 @@
+package lab.rxspring.springbootwebclient.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import lab.rxspring.springbootwebclient.model.BulkCommentRequest;
+
+class CommentServiceTest {
+
+    @Test
+    void bulkIdsAreTrimmedDeduplicatedAndKeepTheirOrder() {
+        BulkCommentRequest request = request(Arrays.asList(" 3", "1", null, " ", "3 "), 1L, 2L);
+
+        assertThat(CommentService.resolveBulkIds(request, 10)).containsExactly("3", "1", "2");
+    }
+
+    @Test
+    void bulkRangeOfExactlyMaxIdsIsAccepted() {
+        assertThat(CommentService.resolveBulkIds(request(null, 1L, 5L), 5)).containsExactly("1", "2", "3", "4", "5");
+    }
+
+    @Test
+    void bulkRangeLargerThanMaxIdsIsRejected() {
+        assertBadRequest(request(null, 1L, 6L), 5, "exceeds 5 ids");
+    }
+
+    @Test
+    void bulkRangeEndingAtLongMaxValueIsRejectedWithoutOverflow() {
+        assertBadRequest(request(null, 1L, Long.MAX_VALUE), 10, "exceeds 10 ids");
+        assertBadRequest(request(null, Long.MAX_VALUE - 20, Long.MAX_VALUE), 10, "exceeds 10 ids");
+    }
+
+    @Test
+    void bulkRangeStartingBelowOneIsRejected() {
+        assertBadRequest(request(null, -1L, Long.MAX_VALUE), 10, "must be positive");
+        assertBadRequest(request(null, 0L, 3L), 10, "must be positive");
+    }
+
+    @Test
+    void bulkRangeNeedsBothBoundsInOrder() {
+        assertBadRequest(request(null, 1L, null), 10, "fromId <= toId");
+        assertBadRequest(request(null, 5L, 4L), 10, "fromId <= toId");
+    }
+
+    @Test
+    void bulkIdsAndRangeCountTogetherAgainstMaxIds() {
+        assertBadRequest(request(List.of("100", "101"), 1L, 4L), 5, "exceeds 5 ids");
+        assertThat(CommentService.resolveBulkIds(request(List.of("1", "2"), 1L, 4L), 4)).hasSize(4);  // Overlap is counted once
+    }
+
+    @Test
+    void emptyBulkRequestIsRejected() {
+        assertBadRequest(request(List.of(" "), null, null), 10, "must contain ids");
+    }
+
+    private static void assertBadRequest(BulkCommentRequest request, int maxIds, String message) {
+        assertThatThrownBy(() -> CommentService.resolveBulkIds(request, maxIds))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST))
+                .hasMessageContaining(message);
+    }
+
+    private static BulkCommentRequest request(List<String> ids, Long fromId, Long toId) {
+        BulkCommentRequest request = new BulkCommentRequest();
+        request.setIds(ids);
+        request.setFromId(fromId);
+        request.setToId(toId);
+        return request;
+    }
+}
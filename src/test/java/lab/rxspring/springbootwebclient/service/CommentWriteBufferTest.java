@@ -0,0 +1,190 @@
+package lab.rxspring.springbootwebclient.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lab.rxspring.springbootwebclient.config.CommentProperties;
+import lab.rxspring.springbootwebclient.dao.CommentDao;
+import lab.rxspring.springbootwebclient.model.Comment;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CommentWriteBufferTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CommentProperties properties = new CommentProperties();
+    private final CommentDao commentDao = mock(CommentDao.class);
+    private final List<List<Comment>> batches = new CopyOnWriteArrayList<>();  // Every list passed to upsertBatch
+
+    @BeforeEach
+    void setUp() {
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setMaxBatchSize(3);
+        properties.getWriteBehind().setMaxWait(Duration.ofSeconds(10));  // Only size or shutdown flush unless a test lowers it
+        when(commentDao.upsertBatch(anyList())).thenAnswer(invocation -> {
+            List<Comment> batch = invocation.getArgument(0);
+            batches.add(batch);
+            return Flux.fromIterable(batch);  // Echo the rows as the statement would return them
+        });
+    }
+
+    @Test
+    void writesAreFlushedTogetherOnceMaxBatchSizeIsReached() throws InterruptedException {
+        CommentWriteBuffer buffer = new CommentWriteBuffer(commentDao, properties, meterRegistry);
+
+        StepVerifier.create(Mono.zip(buffer.write(comment(1, "a")), buffer.write(comment(2, "b")), buffer.write(comment(3, "c"))))
+                .assertNext(saved -> {
+                    assertThat(saved.getT1().getBody()).isEqualTo("a");
+                    assertThat(saved.getT2().getBody()).isEqualTo("b");
+                    assertThat(saved.getT3().getBody()).isEqualTo("c");
+                })
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.getFirst()).extracting(Comment::getExternalCommentId).containsExactly(1L, 2L, 3L);
+        assertThat(pending()).isZero();
+        buffer.shutdown();
+    }
+
+    @Test
+    void partialBatchIsFlushedAfterMaxWait() throws InterruptedException {
+        properties.getWriteBehind().setMaxBatchSize(100);
+        properties.getWriteBehind().setMaxWait(Duration.ofMillis(20));
+        CommentWriteBuffer buffer = new CommentWriteBuffer(commentDao, properties, meterRegistry);
+
+        StepVerifier.create(buffer.write(comment(1, "a")))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.getFirst()).hasSize(1);
+        buffer.shutdown();
+    }
+
+    @Test
+    void repeatedIdInOneBatchIsSentOnceAndEveryCallerGetsTheNewestRow() throws InterruptedException {
+        properties.getWriteBehind().setMaxBatchSize(2);
+        CommentWriteBuffer buffer = new CommentWriteBuffer(commentDao, properties, meterRegistry);
+
+        StepVerifier.create(Mono.zip(buffer.write(comment(1, "old")), buffer.write(comment(1, "new"))))
+                .assertNext(saved -> {
+                    assertThat(saved.getT1().getBody()).isEqualTo("new");
+                    assertThat(saved.getT2().getBody()).isEqualTo("new");
+                })
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.getFirst()).extracting(Comment::getBody).containsExactly("new");
+        assertThat(pending()).isZero();
+        buffer.shutdown();
+    }
+
+    @Test
+    void rowMissingFromTheBatchResultFailsOnlyItsCaller() throws InterruptedException {
+        properties.getWriteBehind().setMaxBatchSize(2);
+        when(commentDao.upsertBatch(anyList())).thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Comment>>getArgument(0))
+                .filter(comment -> comment.getExternalCommentId() != 2L));
+        CommentWriteBuffer buffer = new CommentWriteBuffer(commentDao, properties, meterRegistry);
+
+        StepVerifier.create(Mono.zip(buffer.write(comment(1, "a")),
+                        buffer.write(comment(2, "b")).onErrorResume(IllegalStateException.class, e -> Mono.just(comment(-1, e.getMessage())))))
+                .assertNext(saved -> {
+                    assertThat(saved.getT1().getBody()).isEqualTo("a");
+                    assertThat(saved.getT2().getBody()).isEqualTo("Row not returned by batch upsert");
+                })
+                .expectComplete()
+                .verify(TIMEOUT);
+        buffer.shutdown();
+    }
+
+    @Test
+    void fullBufferSendsTheWriteDirectlyInsteadOfQueueingIt() throws InterruptedException {
+        properties.getWriteBehind().setCapacity(0);
+        when(commentDao.upsert(any())).thenAnswer(invocation -> Mono.just(invocation.<Comment>getArgument(0)));
+        CommentWriteBuffer buffer = new CommentWriteBuffer(commentDao, properties, meterRegistry);
+
+        StepVerifier.create(buffer.write(comment(1, "a")))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        verify(commentDao).upsert(any());
+        verify(commentDao, never()).upsertBatch(anyList());
+        assertThat(meterRegistry.get("comments.write_behind.overflow").counter().count()).isEqualTo(1);
+        assertThat(pending()).isZero();
+        buffer.shutdown();
+    }
+
+    @Test
+    void failedBatchErrorsEveryCallerAndTheNextBatchStillFlushes() throws InterruptedException {
+        properties.getWriteBehind().setMaxBatchSize(2);
+        AtomicBoolean failed = new AtomicBoolean();
+        when(commentDao.upsertBatch(anyList())).thenAnswer(invocation -> failed.compareAndSet(false, true)
+                ? Flux.error(new DataAccessResourceFailureException("connection lost"))
+                : Flux.fromIterable(invocation.<List<Comment>>getArgument(0)));
+        CommentWriteBuffer buffer = new CommentWriteBuffer(commentDao, properties, meterRegistry);
+
+        StepVerifier.create(Mono.zip(buffer.write(comment(1, "a")).onErrorReturn(DataAccessResourceFailureException.class, comment(-1, "failed")),
+                        buffer.write(comment(2, "b")).onErrorReturn(DataAccessResourceFailureException.class, comment(-1, "failed"))))
+                .assertNext(saved -> {
+                    assertThat(saved.getT1().getBody()).isEqualTo("failed");
+                    assertThat(saved.getT2().getBody()).isEqualTo("failed");
+                })
+                .expectComplete()
+                .verify(TIMEOUT);
+        StepVerifier.create(Mono.zip(buffer.write(comment(1, "a")), buffer.write(comment(2, "b"))))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(pending()).isZero();
+        buffer.shutdown();
+    }
+
+    @Test
+    void shutdownFlushesBufferedWritesBeforeReturning() throws InterruptedException {
+        CommentWriteBuffer buffer = new CommentWriteBuffer(commentDao, properties, meterRegistry);
+        AtomicReference<Comment> saved = new AtomicReference<>();
+        buffer.write(comment(1, "a")).subscribe(saved::set);  // Below maxBatchSize and long before maxWait
+
+        buffer.shutdown();
+
+        assertThat(saved.get()).isNotNull();
+        assertThat(batches).hasSize(1);
+        assertThat(pending()).isZero();
+    }
+
+    private double pending() {
+        return meterRegistry.get("comments.write_behind.pending").gauge().value();
+    }
+
+    private static Comment comment(long externalCommentId, String body) {
+        return Comment.builder()
+                .postId(1)
+                .externalCommentId(externalCommentId)
+                .body(body)
+                .build();
+    }
+}